@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.benchmarks;
+
+import org.apache.skyline.engine.loader.SkylineClassLoader;
+import org.apache.skyline.engine.support.SkylinePackagePath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Class definition through {@link SkylineClassLoader} from a plugin jar. A loader defines a
+ * class once, so the jar carries {@link #PROBES} copies of {@link ClassLoaderProbe} renamed in
+ * place, and each invocation defines all of them through a fresh loader with its jars already
+ * scanned. The loader is closed after the invocation, releasing its jar files.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:44
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassLoaderBenchmark {
+
+    private static final String PLUGIN_PATH = "benchmark-plugins";
+
+    private static final int PROBES = 64;
+
+    private static final String PROBE_CLASS = ClassLoaderProbe.class.getName();
+
+    private static final String PROBE_NAME = ClassLoaderProbe.class.getSimpleName();
+
+    private final String[] probeClasses = new String[PROBES];
+
+    private File pluginJar;
+
+    private SkylineClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void writeJar() throws IOException {
+        File pluginDir = new File(SkylinePackagePath.getPath(), PLUGIN_PATH);
+        if (!pluginDir.exists() && !pluginDir.mkdirs()) {
+            throw new IOException("make plugin dir error");
+        }
+        pluginJar = new File(pluginDir, "probe.jar");
+        byte[] probe;
+        try (InputStream in = ClassLoaderProbe.class.getClassLoader()
+                .getResourceAsStream(PROBE_CLASS.replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new IOException("class file of probe not found");
+            }
+            probe = in.readAllBytes();
+        }
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(pluginJar))) {
+            for (int i = 0; i < PROBES; i++) {
+                // same length name, so the constant pool stays valid without rewriting lengths
+                String name = PROBE_NAME.substring(0, PROBE_NAME.length() - 4) + String.format("%04d", i);
+                probeClasses[i] = PROBE_CLASS.replace(PROBE_NAME, name);
+                out.putNextEntry(new JarEntry(probeClasses[i].replace('.', '/') + ".class"));
+                out.write(replace(probe, PROBE_NAME.getBytes(StandardCharsets.UTF_8),
+                        name.getBytes(StandardCharsets.UTF_8)));
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newLoader() {
+        // the platform loader can not see the probe, so it has to come from the jar
+        classLoader = new SkylineClassLoader(ClassLoader.getPlatformClassLoader(), PLUGIN_PATH);
+        classLoader.getResource("META-INF/MANIFEST.MF");
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoader() throws IOException {
+        classLoader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJar() {
+        if (pluginJar != null && !pluginJar.delete()) {
+            pluginJar.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void findClass(Blackhole blackhole) throws ClassNotFoundException {
+        for (String probeClass : probeClasses) {
+            blackhole.consume(classLoader.loadClass(probeClass));
+        }
+    }
+
+    private static byte[] replace(byte[] data, byte[] target, byte[] replacement) {
+        byte[] copy = data.clone();
+        for (int i = 0; i <= copy.length - target.length; i++) {
+            int j = 0;
+            while (j < target.length && copy[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                System.arraycopy(replacement, 0, copy, i, replacement.length);
+                i += target.length - 1;
+            }
+        }
+        return copy;
+    }
+}
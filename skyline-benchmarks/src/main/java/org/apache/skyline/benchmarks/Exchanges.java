@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.benchmarks;
+
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.function.Consumer;
+
+/**
+ * Builds the mocked exchanges the benchmarks run against.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:28
+ */
+final class Exchanges {
+
+    private final MockServerHttpRequest.BaseBuilder<?> builder;
+
+    private Exchanges(MockServerHttpRequest.BaseBuilder<?> builder) {
+        this.builder = builder;
+    }
+
+    static Exchanges get(String uri) {
+        return new Exchanges(MockServerHttpRequest.get(uri));
+    }
+
+    Exchanges with(Consumer<MockServerHttpRequest.BaseBuilder<?>> customizer) {
+        customizer.accept(builder);
+        return this;
+    }
+
+    ServerWebExchange build() {
+        return MockServerWebExchange.from(builder.build());
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.benchmarks;
+
+import org.apache.skyline.plugin.DefaultPluginChain;
+import org.apache.skyline.plugin.SkylinePluginWrapper;
+import org.apache.skyline.plugin.api.DefaultCapableSwitchManager;
+import org.apache.skyline.plugin.api.SkylinePlugin;
+import org.apache.skyline.plugin.api.SkylinePluginChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traversal of a {@link DefaultPluginChain} of pass-through plugins reading their config.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:38
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PluginChainBenchmark {
+
+    @Param({"1", "6", "12"})
+    private int pluginCount;
+
+    private SkylinePluginChain chain;
+
+    private ServerWebExchange exchange;
+
+    @Setup
+    public void setup() {
+        List<SkylinePluginWrapper<?>> wrappers = new ArrayList<>(pluginCount);
+        for (int i = 0; i < pluginCount; i++) {
+            wrappers.add(new SkylinePluginWrapper<>(new PassPlugin(), "{\"name\":\"X-Plugin-" + i + "\",\"value\":\"v\"}"));
+        }
+        chain = new DefaultPluginChain(wrappers, new DefaultCapableSwitchManager());
+        exchange = Exchanges.get("/orders/42").build();
+    }
+
+    @Benchmark
+    public Object handle() {
+        return chain.handle(exchange).block();
+    }
+
+    public static class PassPlugin implements SkylinePlugin<PassPlugin.Config> {
+
+        @Override
+        public Mono<Void> handle(ServerWebExchange exchange, SkylinePluginChain chain) {
+            Config config = chain.getConfig();
+            exchange.getAttributes().put(config.getName(), config.getValue());
+            return chain.handle(exchange);
+        }
+
+        @Override
+        public Class<Config> getConfigClass() {
+            return Config.class;
+        }
+
+        public static class Config {
+
+            private String name;
+
+            private String value;
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public String getValue() {
+                return value;
+            }
+
+            public void setValue(String value) {
+                this.value = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.benchmarks;
+
+import org.apache.skyline.engine.api.locator.CachingApiLocator;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.controller.EntryController;
+import org.apache.skyline.engine.predicate.factory.MethodRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.PathRoutePredicateFactory;
+import org.apache.skyline.engine.support.ApiBuilderUtils;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.model.ApiCluster;
+import org.apache.skyline.model.ApiGroup;
+import org.apache.skyline.plugin.PluginManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route lookup and dispatch of {@link EntryController} over apis with distinct path
+ * prefixes, the request hits the last api.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteLookupBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int apiCount;
+
+    private CachingApiLocator apiLocator;
+
+    private EntryController entryController;
+
+    private ServerWebExchange hit;
+
+    private ServerWebExchange miss;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Api> apis = createApis(apiCount);
+        apiLocator = new CachingApiLocator(() -> Flux.fromIterable(apis));
+        apiLocator.setApplicationEventPublisher(event -> {
+        });
+        apiLocator.afterPropertiesSet();
+        entryController = new EntryController(apiLocator);
+        hit = Exchanges.get("/service" + (apiCount - 1) + "/items/42").build();
+        miss = Exchanges.get("/unknown/items/42").build();
+    }
+
+    @Benchmark
+    public List<Api> lookupHit() {
+        return apiLocator.lookup(hit);
+    }
+
+    @Benchmark
+    public List<Api> lookupMiss() {
+        return apiLocator.lookup(miss);
+    }
+
+    @Benchmark
+    public Object entryHit() {
+        return entryController.entry(hit).block();
+    }
+
+    static List<Api> createApis(int count) {
+        PathRoutePredicateFactory pathFactory = new PathRoutePredicateFactory();
+        MethodRoutePredicateFactory methodFactory = new MethodRoutePredicateFactory();
+        PluginManager pluginManager = new PluginManager();
+        SkylineProperties skylineProperties = new SkylineProperties();
+        ApiGroup apiGroup = new ApiGroup();
+        apiGroup.setId(1);
+        ApiCluster apiCluster = new ApiCluster();
+        apiCluster.setId(1);
+        apiCluster.setDomain("localhost");
+        apiCluster.setPort(8080);
+
+        List<Api> apis = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PathRoutePredicateFactory.Config pathConfig = new PathRoutePredicateFactory.Config()
+                    .setPatterns(List.of("/service" + i + "/items/{id}"));
+            MethodRoutePredicateFactory.Config methodConfig = new MethodRoutePredicateFactory.Config();
+            methodConfig.setMethods(new HttpMethod[]{HttpMethod.GET});
+            apis.add(ApiBuilderUtils.async().id(i).order(i).apiGroup(apiGroup).apiCluster(apiCluster)
+                    .asyncPredicate(pathFactory.applyAsync(pathConfig).and(methodFactory.applyAsync(methodConfig)))
+                    .build(pluginManager, skylineProperties));
+        }
+        return apis;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.benchmarks;
+
+import org.apache.skyline.engine.predicate.factory.CookieRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.HeaderRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.HostRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.PathRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.QueryRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.RemoteAddrRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.XForwardedRemoteAddrRoutePredicateFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpCookie;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Evaluation cost of each route predicate factory on a matching exchange. The attributes of
+ * the exchange are cleared before every invocation, so predicates caching what they parse
+ * on the exchange, as path and the X-Forwarded-For resolver do, are timed on a first
+ * evaluation like in a real request.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:34
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutePredicateBenchmark {
+
+    private ServerWebExchange exchange;
+
+    private Predicate<ServerWebExchange> path;
+
+    private Predicate<ServerWebExchange> host;
+
+    private Predicate<ServerWebExchange> header;
+
+    private Predicate<ServerWebExchange> query;
+
+    private Predicate<ServerWebExchange> cookie;
+
+    private Predicate<ServerWebExchange> remoteAddr;
+
+    private Predicate<ServerWebExchange> xForwardedRemoteAddr;
+
+    @Setup
+    public void setup() {
+        exchange = Exchanges.get("/orders/v1/items/42?channel=app").with(builder -> builder
+                .header("Host", "api.example.com")
+                .header("X-Request-Id", "123456")
+                .header("X-Forwarded-For", "10.1.2.3, 192.168.10.20")
+                .cookie(new HttpCookie("session", "abc123"))
+                .remoteAddress(new InetSocketAddress("192.168.10.20", 52000))).build();
+
+        path = new PathRoutePredicateFactory().apply(new PathRoutePredicateFactory.Config()
+                .setPatterns(List.of("/orders/{version}/items/{id}")));
+        host = new HostRoutePredicateFactory().apply(new HostRoutePredicateFactory.Config()
+                .getPatterns(List.of("**.example.com")));
+        HeaderRoutePredicateFactory.Config headerConfig = new HeaderRoutePredicateFactory.Config();
+        headerConfig.setHeader("X-Request-Id");
+        headerConfig.setRegexp("\\d+");
+        header = new HeaderRoutePredicateFactory().apply(headerConfig);
+        query = new QueryRoutePredicateFactory().apply(new QueryRoutePredicateFactory.Config()
+                .setParam("channel").setRegexp("app|web"));
+        cookie = new CookieRoutePredicateFactory().apply(new CookieRoutePredicateFactory.Config()
+                .setName("session").setRegexp("[a-z0-9]+"));
+        remoteAddr = new RemoteAddrRoutePredicateFactory().apply(new RemoteAddrRoutePredicateFactory.Config()
+                .setSources("10.0.0.0/8", "192.168.0.0/16"));
+        xForwardedRemoteAddr = new XForwardedRemoteAddrRoutePredicateFactory().apply(
+                new XForwardedRemoteAddrRoutePredicateFactory.Config().setSources("10.0.0.0/8", "192.168.0.0/16"));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearAttributes() {
+        exchange.getAttributes().clear();
+    }
+
+    @Benchmark
+    public boolean path() {
+        return path.test(exchange);
+    }
+
+    @Benchmark
+    public boolean host() {
+        return host.test(exchange);
+    }
+
+    @Benchmark
+    public boolean header() {
+        return header.test(exchange);
+    }
+
+    @Benchmark
+    public boolean query() {
+        return query.test(exchange);
+    }
+
+    @Benchmark
+    public boolean cookie() {
+        return cookie.test(exchange);
+    }
+
+    @Benchmark
+    public boolean remoteAddr() {
+        return remoteAddr.test(exchange);
+    }
+
+    @Benchmark
+    public boolean xForwardedRemoteAddr() {
+        return xForwardedRemoteAddr.test(exchange);
+    }
+}
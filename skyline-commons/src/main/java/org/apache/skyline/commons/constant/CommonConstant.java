@@ -42,8 +42,33 @@ public final class CommonConstant {
      */
     public static final String GATEWAY_PREDICATE_API_IDENTITY = qualify("gatewayPredicateApiIdentity");
 
+    /**
+     * Request path parsed once for the route index and the path predicates.
+     */
+    public static final String GATEWAY_PREDICATE_PATH_CONTAINER_ATTR = qualify("gatewayPredicatePathContainer");
+
     public static final String GATEWAY_API_ATTR = qualify("gatewayApi");
 
+    /**
+     * Version of the api snapshot which routed the request.
+     */
+    public static final String GATEWAY_API_SNAPSHOT_VERSION_ATTR = qualify("gatewayApiSnapshotVersion");
+
+    /**
+     * Upstream endpoint chosen by the load balancer.
+     */
+    public static final String GATEWAY_UPSTREAM_ENDPOINT_ATTR = qualify("gatewayUpstreamEndpoint");
+
+    /**
+     * Number of times the upstream request was retried, set when the request may be retried.
+     */
+    public static final String GATEWAY_RETRY_COUNT_ATTR = qualify("gatewayRetryCount");
+
+    /**
+     * Client address resolved from X-Forwarded-For, suffixed with the max trusted index.
+     */
+    public static final String GATEWAY_X_FORWARDED_REMOTE_ADDRESS_ATTR = qualify("gatewayXForwardedRemoteAddress");
+
     public static final String SYS_PREFIX = "skyline";
 
     public static final String PLUGIN_CONF_FILE_NAME = "skyline-plugin.def";
@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.apache.skyline.engine.support.ipresolver;
+package org.apache.skyline.commons.support.ipresolver;
 
 import org.springframework.web.server.ServerWebExchange;
 
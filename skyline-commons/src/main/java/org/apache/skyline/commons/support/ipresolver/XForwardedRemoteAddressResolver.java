@@ -13,17 +13,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.apache.skyline.engine.support.ipresolver;
+package org.apache.skyline.commons.support.ipresolver;
 
+import io.netty.util.NetUtil;
+import org.apache.skyline.commons.constant.CommonConstant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
-import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -44,8 +44,11 @@ public class XForwardedRemoteAddressResolver implements RemoteAddressResolver {
 
     private final int maxTrustedIndex;
 
+    private final String attributeName;
+
     private XForwardedRemoteAddressResolver(int maxTrustedIndex) {
         this.maxTrustedIndex = maxTrustedIndex;
+        this.attributeName = CommonConstant.GATEWAY_X_FORWARDED_REMOTE_ADDRESS_ATTR + "." + maxTrustedIndex;
     }
 
     /**
@@ -90,36 +93,85 @@ public class XForwardedRemoteAddressResolver implements RemoteAddressResolver {
     }
 
     /**
-     * The X-Forwarded-For header contains a comma separated list of IP addresses. This
-     * method parses those IP addresses into a list. If no X-Forwarded-For header is
-     * found, an empty list is returned. If multiple X-Forwarded-For headers are found, an
-     * empty list is returned out of caution.
-     * @return The parsed values of the X-Forwarded-Header.
+     * The X-Forwarded-For header contains a comma separated list of IP addresses. The
+     * header is scanned from the right up to the {@link #maxTrustedIndex}-th address,
+     * without splitting it. If no X-Forwarded-For header is found, or multiple ones out of
+     * caution, the remote address of the connection is used. The address is parsed as a
+     * literal, never resolved through DNS, and kept on the exchange for later predicates.
+     * @return The trusted address of the X-Forwarded-Header.
      */
     @Override
     public InetSocketAddress resolve(ServerWebExchange exchange) {
-        List<String> xForwardedValues = extractXForwardedValues(exchange);
-        Collections.reverse(xForwardedValues);
-        if (!xForwardedValues.isEmpty()) {
-            int index = Math.min(xForwardedValues.size(), maxTrustedIndex) - 1;
-            return new InetSocketAddress(xForwardedValues.get(index), 0);
+        InetSocketAddress cached = exchange.getAttribute(attributeName);
+        if (cached != null) {
+            return cached;
+        }
+        String xForwardedFor = extractXForwardedValue(exchange);
+        if (xForwardedFor == null) {
+            return defaultRemoteIpResolver.resolve(exchange);
+        }
+        int start = -1;
+        int end = -1;
+        int found = 0;
+        int i = xForwardedFor.length();
+        while (i > 0 && found < maxTrustedIndex) {
+            while (i > 0 && isSeparator(xForwardedFor.charAt(i - 1))) {
+                i--;
+            }
+            if (i == 0) {
+                break;
+            }
+            end = i;
+            while (i > 0 && !isSeparator(xForwardedFor.charAt(i - 1))) {
+                i--;
+            }
+            start = i;
+            found++;
         }
-        return defaultRemoteIpResolver.resolve(exchange);
+        if (found == 0) {
+            return defaultRemoteIpResolver.resolve(exchange);
+        }
+        InetSocketAddress address = parse(xForwardedFor, start, end);
+        exchange.getAttributes().put(attributeName, address);
+        return address;
     }
 
-    private List<String> extractXForwardedValues(ServerWebExchange exchange) {
+    private String extractXForwardedValue(ServerWebExchange exchange) {
         List<String> xForwardedValues = exchange.getRequest().getHeaders().get(X_FORWARDED_FOR);
         if (xForwardedValues == null || xForwardedValues.isEmpty()) {
-            return Collections.emptyList();
+            return null;
         }
         if (xForwardedValues.size() > 1) {
             log.warn("Multiple X-Forwarded-For headers found, discarding all");
-            return Collections.emptyList();
+            return null;
         }
-        List<String> values = Arrays.asList(xForwardedValues.get(0).split(", "));
-        if (values.size() == 1 && !StringUtils.hasText(values.get(0))) {
-            return Collections.emptyList();
+        return xForwardedValues.get(0);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || Character.isWhitespace(c);
+    }
+
+    /**
+     * Parses an ip literal, optionally with a port as in {@code 1.2.3.4:80} or {@code [::1]:80}.
+     * Anything else yields an unresolved address which matches no source.
+     */
+    private static InetSocketAddress parse(String value, int start, int end) {
+        if (value.charAt(start) == '[') {
+            int close = value.indexOf(']', start);
+            if (close > 0 && close < end) {
+                start++;
+                end = close;
+            }
+        } else {
+            // a single colon is an ipv4 port, ipv6 literals have several
+            int colon = value.indexOf(':', start);
+            if (colon >= 0 && colon < end && value.lastIndexOf(':', end - 1) == colon) {
+                end = colon;
+            }
         }
-        return values;
+        String ip = value.substring(start, end);
+        InetAddress address = NetUtil.createInetAddressFromIpAddressString(ip);
+        return address == null ? InetSocketAddress.createUnresolved(ip, 0) : new InetSocketAddress(address, 0);
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.api;
+
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.model.Api;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+
+/**
+ * An {@link ApiLocator} serving its apis from a published {@link ApiSnapshot}, so the apis
+ * can be looked up synchronously on the request path.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 21:10
+ */
+public interface SnapshotApiLocator extends ApiLocator {
+
+    /**
+     * Returns the snapshot published now, never null.
+     */
+    ApiSnapshot getSnapshot();
+
+    /**
+     * Returns the apis of the current snapshot that may match the exchange, in api order.
+     * Apis whose predicates can never match the exchange are left out.
+     */
+    default List<Api> lookup(ServerWebExchange exchange) {
+        return getSnapshot().getRouteIndex().lookup(exchange);
+    }
+}
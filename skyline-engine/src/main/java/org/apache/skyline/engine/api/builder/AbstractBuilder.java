@@ -17,13 +17,12 @@ package org.apache.skyline.engine.api.builder;
 
 import org.apache.skyline.commons.exception.SkylineException;
 import org.apache.skyline.engine.config.SkylineProperties;
-import org.apache.skyline.engine.loader.SkylineClassLoader;
 import org.apache.skyline.model.Api;
 import org.apache.skyline.model.ApiCluster;
 import org.apache.skyline.model.ApiGroup;
 import org.apache.skyline.model.predicate.AsyncPredicate;
 import org.apache.skyline.model.support.Buildable;
-import org.apache.skyline.plugin.PluginBootstrap;
+import org.apache.skyline.plugin.DefaultPluginChain;
 import org.apache.skyline.plugin.PluginDefinition;
 import org.apache.skyline.plugin.PluginManager;
 import org.apache.skyline.plugin.SkylinePluginWrapper;
@@ -31,6 +30,7 @@ import org.apache.skyline.plugin.api.SkylinePlugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -72,6 +72,8 @@ public abstract class AbstractBuilder<B extends AbstractBuilder<B>> implements B
 
     private List<PluginDefinition> pluginDefinitions = new ArrayList<>();
 
+    private WebHandler terminalHandler;
+
     protected AbstractBuilder() {
     }
 
@@ -138,6 +140,11 @@ public abstract class AbstractBuilder<B extends AbstractBuilder<B>> implements B
         return getThis();
     }
 
+    public B terminalHandler(WebHandler terminalHandler) {
+        this.terminalHandler = terminalHandler;
+        return getThis();
+    }
+
     public B metadata(Map<String, Object> metadata) {
         this.metadata.putAll(metadata);
         return getThis();
@@ -165,39 +172,34 @@ public abstract class AbstractBuilder<B extends AbstractBuilder<B>> implements B
         }
         Api api = new Api();
         api.setId(this.id);
+        api.setOrder(this.order);
+        api.setVersion(this.version);
         api.setName(this.name);
         api.setMemo(this.memo);
         api.setApiCluster(this.apiCluster);
         api.setApiGroup(this.apiGroup);
         api.setMetadata(this.metadata);
-        if (this.createTime == null) {
-            api.setCreateTime(new Date());
-        }
-        if (this.updateTime == null) {
-            api.setUpdateTime(new Date());
-        }
+        api.setCreateTime(this.createTime == null ? new Date() : this.createTime);
+        api.setUpdateTime(this.updateTime == null ? new Date() : this.updateTime);
         api.setIdentification(this.id + "_" + this.apiCluster.getId() + "_" + this.apiGroup.getId());
         api.setPredicate(getPredicate());
-        api.setPluginWrappers(convertPlugins(this.pluginDefinitions, pluginManager, skylineProperties));
+        api.setPluginWrappers(convertPlugins(this.pluginDefinitions, pluginManager));
+        api.setPluginChain(new DefaultPluginChain(api.getPluginWrappers(), pluginManager.getCapableSwitchManager(),
+                this.terminalHandler));
         return api;
     }
 
     private List<SkylinePluginWrapper<?>> convertPlugins(List<PluginDefinition> pluginDefinitions,
-                                                      PluginManager pluginManager, SkylineProperties skylineProperties) {
-        return pluginDefinitions.stream().map(
-                pluginDefinition -> pluginManager.getPlugins().computeIfAbsent(pluginDefinition.getDefineClass(),
-                        s -> {
-                            try {
-                                LOGGER.debug("loading plugin class {}.", pluginDefinition.getDefineClass());
-                                SkylinePlugin<?> plugin = (SkylinePlugin<?>) Class.forName(
-                                        pluginDefinition.getDefineClass(), true,
-                                        new SkylineClassLoader(PluginBootstrap.class.getClassLoader(), skylineProperties.getPluginPath())).getConstructor().newInstance();
-                                return new SkylinePluginWrapper<>(plugin, pluginDefinition.getConfig());
-                            } catch (Throwable t) {
-                                LOGGER.error("load plugin [" + pluginDefinition.getDefineClass() + "] failure.", t);
-                                throw new SkylineException(t);
-                            }
-                })
-        ).collect(Collectors.toList());
+                                                      PluginManager pluginManager) {
+        return pluginDefinitions.stream().map(pluginDefinition -> {
+            SkylinePlugin<?> plugin = pluginManager.getPlugin(pluginDefinition);
+            // the plugin instance is shared, the config is bound per api and only rebound on refresh
+            try {
+                return new SkylinePluginWrapper<>(plugin, pluginDefinition.getConfig());
+            } catch (Throwable t) {
+                LOGGER.error("bind config of plugin [" + pluginDefinition.getDefineClass() + "] failure.", t);
+                throw new SkylineException(t);
+            }
+        }).collect(Collectors.toList());
     }
 }
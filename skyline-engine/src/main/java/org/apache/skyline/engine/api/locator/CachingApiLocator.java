@@ -16,11 +16,14 @@
 package org.apache.skyline.engine.api.locator;
 
 import org.apache.skyline.engine.api.ApiLocator;
+import org.apache.skyline.engine.api.SnapshotApiLocator;
+import org.apache.skyline.engine.api.route.ApiSnapshot;
 import org.apache.skyline.engine.event.RefreshApiEvent;
 import org.apache.skyline.engine.event.RefreshApiResultEvent;
 import org.apache.skyline.model.Api;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
@@ -30,29 +33,56 @@ import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
+ * Serves apis from an immutable {@link ApiSnapshot} published through a single volatile
+ * reference, a refresh swaps the whole snapshot so readers never see a partial table.
+ * When an api of the snapshot becomes active or expires the same apis are published again
+ * so the route index only holds the apis active now. The route match cache belongs to the
+ * snapshot, publishing drops the cached matches together with the old table.
+ * A transition only publishes while its snapshot is still the current one, a refresh
+ * landing meanwhile wins.
+ *
  * @author lijian
  * @since time: 2022-09-07 09:24
  */
-public class CachingApiLocator implements Ordered, ApiLocator,
-        ApplicationListener<RefreshApiEvent>, ApplicationEventPublisherAware, InitializingBean {
+public class CachingApiLocator implements Ordered, SnapshotApiLocator,
+        ApplicationListener<RefreshApiEvent>, ApplicationEventPublisherAware, InitializingBean, DisposableBean {
 
     private static final Logger LOG = LoggerFactory.getLogger(CachingApiLocator.class);
 
-    private static final String CACHE_KEY = "apis";
-
     private final ApiLocator delegate;
 
-    private final Map<String, List> cache = new ConcurrentHashMap<>();
+    private final int routeCacheSize;
+
+    private final AtomicReference<ApiSnapshot> snapshot = new AtomicReference<>(ApiSnapshot.EMPTY);
 
     private ApplicationEventPublisher publisher;
 
+    private final ScheduledExecutorService transitionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "skyline-api-transition");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ScheduledFuture<?> pendingTransition;
+
     public CachingApiLocator(ApiLocator delegate) {
+        this(delegate, 0);
+    }
+
+    /**
+     * @param routeCacheSize max route matches cached per snapshot, 0 disables the route cache
+     */
+    public CachingApiLocator(ApiLocator delegate, int routeCacheSize) {
         this.delegate = delegate;
+        this.routeCacheSize = routeCacheSize;
     }
 
     private Flux<Api> fetch() {
@@ -60,14 +90,18 @@ public class CachingApiLocator implements Ordered, ApiLocator,
     }
 
     public Flux<Api> refresh() {
-        this.cache.clear();
-        return getApis();
+        return fetch().collect(Collectors.toList()).map(this::publish)
+                .flatMapIterable(ApiSnapshot::getApis);
     }
 
+    @Override
+    public ApiSnapshot getSnapshot() {
+        return snapshot.get();
+    }
 
     @Override
     public Flux<Api> getApis() {
-        return Flux.fromIterable(cache.get(CACHE_KEY));
+        return Flux.fromIterable(snapshot.get().getApis());
     }
 
     @Override
@@ -77,15 +111,61 @@ public class CachingApiLocator implements Ordered, ApiLocator,
 
     private void prepareApi() {
         try {
-            fetch().collect(Collectors.toList()).subscribe(list -> {
-                publisher.publishEvent(new RefreshApiResultEvent(this));
-                cache.put(CACHE_KEY, list);
-            }, this::handleRefreshError);
+            fetch().collect(Collectors.toList()).subscribe(this::publish, this::handleRefreshError);
+        } catch (Throwable e) {
+            handleRefreshError(e);
+        }
+    }
+
+    private ApiSnapshot publish(List<Api> apis) {
+        ApiSnapshot next = ApiSnapshot.of(apis, routeCacheSize);
+        this.snapshot.set(next);
+        onPublished(next);
+        return next;
+    }
+
+    /**
+     * Publishes the same apis again unless another snapshot was published since.
+     */
+    private void transition(ApiSnapshot published) {
+        // the scheduler drops the future, a failure is reported like the one of a refresh
+        try {
+            ApiSnapshot next = ApiSnapshot.of(published.getApis(), routeCacheSize);
+            if (this.snapshot.compareAndSet(published, next)) {
+                onPublished(next);
+            }
         } catch (Throwable e) {
             handleRefreshError(e);
         }
     }
 
+    private void onPublished(ApiSnapshot published) {
+        if (this.snapshot.get() != published) {
+            // a concurrent refresh published after it, listeners get that one
+            return;
+        }
+        LOG.info("api snapshot {} published with {} apis.", published.getVersion(), published.getApis().size());
+        scheduleTransition(published);
+        publisher.publishEvent(new RefreshApiResultEvent(this, published));
+    }
+
+    private synchronized void scheduleTransition(ApiSnapshot published) {
+        if (this.snapshot.get() != published) {
+            // superseded, the newer snapshot schedules its own transition
+            return;
+        }
+        if (pendingTransition != null) {
+            pendingTransition.cancel(false);
+            pendingTransition = null;
+        }
+        long nextTransition = published.getNextTransition();
+        if (nextTransition == Long.MAX_VALUE) {
+            return;
+        }
+        long delay = Math.max(0, nextTransition - System.currentTimeMillis());
+        pendingTransition = transitionScheduler.schedule(() -> transition(published), delay, TimeUnit.MILLISECONDS);
+    }
+
     private void handleRefreshError(Throwable throwable) {
         if (LOG.isErrorEnabled()) {
             LOG.error("Refresh routes error !!!", throwable);
@@ -107,4 +187,9 @@ public class CachingApiLocator implements Ordered, ApiLocator,
     public void afterPropertiesSet() throws Exception {
         prepareApi();
     }
+
+    @Override
+    public void destroy() {
+        transitionScheduler.shutdownNow();
+    }
 }
@@ -19,6 +19,7 @@ import org.apache.skyline.commons.exception.SkylineException;
 import org.apache.skyline.engine.api.ApiDefinition;
 import org.apache.skyline.engine.api.ApiLocator;
 import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.enums.PredicateCost;
 import org.apache.skyline.engine.enums.PredicateFactoryEnum;
 import org.apache.skyline.engine.event.PredicateArgsEvent;
 import org.apache.skyline.engine.predicate.PredicateDefinition;
@@ -32,10 +33,14 @@ import org.apache.skyline.plugin.PluginManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
 import reactor.core.publisher.Flux;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * apiLocator that loads apis from a ApiDefinitionLocator.
@@ -56,52 +61,134 @@ public class DefaultApiLocator implements ApiLocator {
 
     private final SkylineProperties skylineProperties;
 
+    private final WebHandler forwardingHandler;
+
+    /**
+     * apis of the last complete refresh by definition id.
+     */
+    private volatile Map<Integer, Api> builtApis = Map.of();
+
+    /**
+     * plugin generation the built apis were bound to.
+     */
+    private volatile long builtGeneration;
+
     public DefaultApiLocator(ApiDefinitionLocator apiDefinitionLocator, PredicateFactoryManager predicateFactoryManager,
-                             ConfigurationService configurationService, PluginManager pluginManager, SkylineProperties skylineProperties) {
+                             ConfigurationService configurationService, PluginManager pluginManager,
+                             SkylineProperties skylineProperties, WebHandler forwardingHandler) {
         this.apiDefinitionLocator = apiDefinitionLocator;
         this.configurationService = configurationService;
         this.predicateFactoryManager = predicateFactoryManager;
         this.pluginManager = pluginManager;
         this.skylineProperties = skylineProperties;
+        this.forwardingHandler = forwardingHandler;
     }
 
     @Override
     public Flux<Api> getApis() {
-        return this.apiDefinitionLocator.getApiDefinitions().map(this::convertToApi)
-                .onErrorContinue((error, obj) -> {
-                    if (LOG.isWarnEnabled()) {
-                        LOG.warn("apiDefinition id " + ((ApiDefinition) obj).getId()
-                                + " will be ignored. Definition has invalid configs, " + error.getMessage());
-                    }
-                }).map(api -> {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("api found: " + api.getIdentification());
-                    }
-                    return api;
-                });
+        return Flux.defer(() -> {
+            // reloaded plugin jars invalidate every api holding their retired instances
+            long generation = pluginManager.getGeneration();
+            Map<Integer, Api> previous = generation == this.builtGeneration ? this.builtApis : Map.of();
+            Map<Integer, Api> current = new ConcurrentHashMap<>();
+            return this.apiDefinitionLocator.getApiDefinitions().map(apiDefinition -> {
+                        Api api = reuseOrConvert(apiDefinition, previous);
+                        current.put(apiDefinition.getId(), api);
+                        return api;
+                    })
+                    .onErrorContinue((error, obj) -> {
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn("apiDefinition id " + ((ApiDefinition) obj).getId()
+                                    + " will be ignored. Definition has invalid configs, " + error.getMessage());
+                        }
+                    }).map(api -> {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("api found: " + api.getIdentification());
+                        }
+                        return api;
+                    }).doOnComplete(() -> {
+                        this.builtApis = current;
+                        this.builtGeneration = generation;
+                    });
+        });
+    }
+
+    /**
+     * Apis are diffed on id and version, only new or changed definitions are rebuilt.
+     * Version 0 means the source does not version its definitions, those are always rebuilt.
+     */
+    private Api reuseOrConvert(ApiDefinition apiDefinition, Map<Integer, Api> previous) {
+        Api api = previous.get(apiDefinition.getId());
+        if (api != null && apiDefinition.getVersion() != 0 && api.getVersion() == apiDefinition.getVersion()) {
+            return api;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("building api " + apiDefinition.getId() + " of version " + apiDefinition.getVersion());
+        }
+        return convertToApi(apiDefinition);
     }
 
     private Api convertToApi(ApiDefinition apiDefinition) {
-        return ApiBuilderUtils.async(apiDefinition).asyncPredicate(combinePredicates(apiDefinition)).build(pluginManager, skylineProperties);
+        Api api = ApiBuilderUtils.async(apiDefinition).asyncPredicate(combinePredicates(apiDefinition))
+                .terminalHandler(forwardingHandler).build(pluginManager, skylineProperties);
+        api.setRouteKeyOnly(isRouteKeyOnly(apiDefinition));
+        return api;
+    }
+
+    /**
+     * An api is route key only when all of its predicates are, its matches may then be cached
+     * by request method, host and path.
+     */
+    private boolean isRouteKeyOnly(ApiDefinition apiDefinition) {
+        List<PredicateDefinition> predicates = apiDefinition.getPredicates();
+        if (predicates == null) {
+            return true;
+        }
+        for (PredicateDefinition predicateDefinition : predicates) {
+            if (!lookupFactory(predicateDefinition).routeKeyOnly()) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * ANDs the predicates cheapest cost class first, definition order is kept within a class.
+     * Predicates writing exchange attributes never overtake each other so the attributes of
+     * a matching api end up as defined.
+     */
     private AsyncPredicate<ServerWebExchange> combinePredicates(ApiDefinition apiDefinition) {
         List<PredicateDefinition> predicates = apiDefinition.getPredicates();
         if (predicates == null || predicates.isEmpty()) {
             // this is a very rare case, but possible, just match all
             return AsyncPredicate.from(exchange -> true);
         }
-        AsyncPredicate<ServerWebExchange> predicate = lookupPredicate(apiDefinition, predicates.get(0));
+        List<PlannedPredicate> planned = new ArrayList<>(predicates.size());
+        PredicateCost writerFloor = PredicateCost.CHEAP;
+        for (PredicateDefinition predicateDefinition : predicates) {
+            RoutePredicateFactory factory = lookupFactory(predicateDefinition);
+            PredicateCost cost = factory.cost();
+            if (factory.writesAttributes()) {
+                if (cost.compareTo(writerFloor) < 0) {
+                    cost = writerFloor;
+                } else {
+                    writerFloor = cost;
+                }
+            }
+            planned.add(new PlannedPredicate(cost, lookupPredicate(apiDefinition, predicateDefinition, factory)));
+        }
+        // stable, equal costs keep the definition order
+        planned.sort(Comparator.comparing(plannedPredicate -> plannedPredicate.cost));
 
-        for (PredicateDefinition andPredicate : predicates.subList(1, predicates.size())) {
-            AsyncPredicate<ServerWebExchange> found = lookupPredicate(apiDefinition, andPredicate);
-            predicate = predicate.and(found);
+        AsyncPredicate<ServerWebExchange> predicate = planned.get(0).predicate;
+        for (PlannedPredicate andPredicate : planned.subList(1, planned.size())) {
+            predicate = predicate.and(andPredicate.predicate);
         }
 
         return predicate;
     }
 
-    private AsyncPredicate<ServerWebExchange> lookupPredicate(ApiDefinition apiDefinition, PredicateDefinition predicateDefinition) {
+    private RoutePredicateFactory lookupFactory(PredicateDefinition predicateDefinition) {
         PredicateFactoryEnum predicateFactoryEnum = PredicateFactoryEnum.getPredicateFactoryEnum(predicateDefinition.getName());
         if (predicateFactoryEnum == null) {
             throw new SkylineException("not found predicate Factory [" + predicateDefinition.getName() + "] in enums");
@@ -111,6 +198,11 @@ public class DefaultApiLocator implements ApiLocator {
             // not happen except predicateFactoryManager config is wrong
             throw new SkylineException("Unable to find RoutePredicateFactory with name " + predicateDefinition.getName());
         }
+        return factory;
+    }
+
+    private AsyncPredicate<ServerWebExchange> lookupPredicate(ApiDefinition apiDefinition, PredicateDefinition predicateDefinition,
+                                                              RoutePredicateFactory factory) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("RouteDefinition " + apiDefinition.getId() + " applying " + predicateDefinition.getArgs() + " to "
                     + predicateDefinition.getName());
@@ -129,4 +221,16 @@ public class DefaultApiLocator implements ApiLocator {
         return factory.applyAsync(config);
     }
 
+    private static class PlannedPredicate {
+
+        private final PredicateCost cost;
+
+        private final AsyncPredicate<ServerWebExchange> predicate;
+
+        private PlannedPredicate(PredicateCost cost, AsyncPredicate<ServerWebExchange> predicate) {
+            this.cost = cost;
+            this.predicate = predicate;
+        }
+    }
+
 }
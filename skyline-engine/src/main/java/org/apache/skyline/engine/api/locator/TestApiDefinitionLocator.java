@@ -21,7 +21,7 @@ import org.apache.skyline.commons.exception.PluginClassNotFoundException;
 import org.apache.skyline.commons.exception.SkylineException;
 import org.apache.skyline.engine.api.ApiDefinition;
 import org.apache.skyline.engine.config.SkylineProperties;
-import org.apache.skyline.engine.loader.SkylineClassLoader;
+import org.apache.skyline.engine.loader.PluginClassLoaderManager;
 import org.apache.skyline.engine.predicate.PredicateDefinition;
 import org.apache.skyline.engine.support.SkylinePackagePath;
 import org.apache.skyline.model.ApiCluster;
@@ -58,9 +58,13 @@ public class TestApiDefinitionLocator implements ApiDefinitionLocator, Initializ
 
     private PluginDefinitionManager pluginDefinitionManager;
 
-    public TestApiDefinitionLocator(SkylineProperties skylineProperties, PluginDefinitionManager pluginDefinitionManager) {
+    private PluginClassLoaderManager pluginClassLoaderManager;
+
+    public TestApiDefinitionLocator(SkylineProperties skylineProperties, PluginDefinitionManager pluginDefinitionManager,
+                                    PluginClassLoaderManager pluginClassLoaderManager) {
         this.pluginDefinitionManager = pluginDefinitionManager;
         this.skylineProperties = skylineProperties;
+        this.pluginClassLoaderManager = pluginClassLoaderManager;
     }
 
     @Override
@@ -81,7 +85,7 @@ public class TestApiDefinitionLocator implements ApiDefinitionLocator, Initializ
 
             // when all of api definition iterate done, then populate class field of it
             PluginResourcesResolver pluginResourcesResolver = new PluginResourcesResolver();
-            List<URL> resources = pluginResourcesResolver.getResources(new SkylineClassLoader(PluginResourcesResolver.class.getClassLoader(), skylineProperties.getPluginPath()));
+            List<URL> resources = pluginResourcesResolver.getResources(pluginClassLoaderManager.getResourceClassLoader());
             pluginDefinitionManager.load(resources);
             for (PluginDefinition pluginDefinition : pluginDefinitions) {
                 String defineClass = pluginDefinitionManager.getDefineClass(pluginDefinition.getName());
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.api.route;
+
+import org.apache.skyline.engine.predicate.HostMatcher;
+import org.apache.skyline.engine.predicate.factory.AfterRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.BeforeRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.BetweenRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.HostRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.MethodRoutePredicateFactory;
+import org.apache.skyline.engine.predicate.factory.PathRoutePredicateFactory;
+import org.apache.skyline.engine.support.ServerWebExchangeUtils;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.model.predicate.AsyncPredicate;
+import org.apache.skyline.model.predicate.SkylinePredicate;
+import org.apache.skyline.model.support.HasConfig;
+import org.apache.skyline.model.support.Visitor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Route table compiled from an ordered api list, built once per refresh.
+ * <p>
+ * Apis are bucketed by the literal path prefix, host and method taken from their
+ * Path/Host/Method predicate configs. A lookup only returns the apis of the matching
+ * bucket, in the original order, so the first-match semantics of a linear scan are kept.
+ * Constraints are only derived from predicates that are necessary conditions of the
+ * api (pure conjunctions), everything else falls back to the unconstrained bucket.
+ * <p>
+ * After/Before/Between configs give the time window of an api. The index is built for one
+ * instant and leaves out the apis inactive at that instant, {@link #getNextTransition()}
+ * tells when the index has to be built again.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 10:12
+ */
+public class ApiRouteIndex {
+
+    public static final ApiRouteIndex EMPTY = build(Collections.emptyList());
+
+    private final List<Api> apis;
+
+    private final Node root;
+
+    private final long nextTransition;
+
+    private ApiRouteIndex(List<Api> apis, Node root, long nextTransition) {
+        this.apis = apis;
+        this.root = root;
+        this.nextTransition = nextTransition;
+    }
+
+    public static ApiRouteIndex build(List<Api> apis) {
+        return build(apis, System.currentTimeMillis());
+    }
+
+    /**
+     * @param now epoch millis the time windows of the apis are evaluated at
+     */
+    public static ApiRouteIndex build(List<Api> apis, long now) {
+        Node root = new Node();
+        long nextTransition = Long.MAX_VALUE;
+        for (int i = 0; i < apis.size(); i++) {
+            Api api = apis.get(i);
+            Entry entry = Entry.of(api, i);
+            if (entry.activeFrom > now) {
+                nextTransition = Math.min(nextTransition, entry.activeFrom);
+            }
+            if (entry.activeUntil > now) {
+                nextTransition = Math.min(nextTransition, entry.activeUntil);
+            }
+            if (now < entry.activeFrom || now >= entry.activeUntil) {
+                // not active yet or expired, dropped until the next transition
+                continue;
+            }
+            if (entry.pathPrefixes == null) {
+                root.entries.add(entry);
+                continue;
+            }
+            for (List<String> prefix : entry.pathPrefixes) {
+                Node node = root;
+                for (String segment : prefix) {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+                node.entries.add(entry);
+            }
+        }
+        root.compile(new Entry[0]);
+        return new ApiRouteIndex(Collections.unmodifiableList(new ArrayList<>(apis)), root, nextTransition);
+    }
+
+    public List<Api> getApis() {
+        return apis;
+    }
+
+    /**
+     * @return epoch millis at which an api becomes active or expires, Long.MAX_VALUE if never
+     */
+    public long getNextTransition() {
+        return nextTransition;
+    }
+
+    /**
+     * Returns the apis which may match the exchange, in api order.
+     */
+    public List<Api> lookup(ServerWebExchange exchange) {
+        Node node = walk(exchange);
+        HttpMethod method = exchange.getRequest().getMethod();
+        String host = exchange.getRequest().getHeaders().getFirst(HostRoutePredicateFactory.HOST_KEY);
+        // AntPathMatcher ignores empty host labels, keep those hosts away from the exact lookup
+        boolean exactHost = host == null || !HostMatcher.hasEmptyLabel(host);
+
+        List<Api> candidates = new ArrayList<>(Math.min(node.candidates.length, 8));
+        for (Entry entry : node.candidates) {
+            if (entry.accepts(method, host, exactHost)) {
+                candidates.add(entry.api);
+            }
+        }
+        return candidates;
+    }
+
+    private Node walk(ServerWebExchange exchange) {
+        Node node = root;
+        if (node.children.isEmpty()) {
+            return node;
+        }
+        // the parsed path is kept on the exchange for the path predicates
+        List<PathContainer.Element> elements = ServerWebExchangeUtils.getPathContainer(exchange).elements();
+        // elements alternate between separators and segments: "/", "a", "/", "b"
+        for (int i = 0; i + 1 < elements.size(); i += 2) {
+            if (!(elements.get(i) instanceof PathContainer.Separator)
+                    || !(elements.get(i + 1) instanceof PathContainer.PathSegment)) {
+                break;
+            }
+            Node child = node.children.get(((PathContainer.PathSegment) elements.get(i + 1)).valueToMatch());
+            if (child == null) {
+                break;
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Entry[] candidates;
+
+        private void compile(Entry[] inherited) {
+            if (entries.isEmpty()) {
+                candidates = inherited;
+            } else {
+                // an api registered under several prefixes must only show up once
+                Set<Entry> merged = new LinkedHashSet<>(Arrays.asList(inherited));
+                merged.addAll(entries);
+                candidates = merged.toArray(new Entry[0]);
+                Arrays.sort(candidates, Comparator.comparingInt(e -> e.position));
+            }
+            entries.clear();
+            children.values().forEach(child -> child.compile(candidates));
+        }
+    }
+
+    private static class Entry {
+
+        private final Api api;
+
+        private final int position;
+
+        /**
+         * allowed methods indexed by ordinal, null when the api does not constrain the method.
+         */
+        private final boolean[] methods;
+
+        /**
+         * literal hosts, null when the api does not constrain the host by literals.
+         */
+        private final Set<String> hosts;
+
+        /**
+         * literal path segment prefixes, null when the api does not constrain the path.
+         */
+        private final List<List<String>> pathPrefixes;
+
+        /**
+         * epoch millis window [activeFrom, activeUntil) the api may match in.
+         */
+        private final long activeFrom;
+
+        private final long activeUntil;
+
+        private Entry(Api api, int position, boolean[] methods, Set<String> hosts, List<List<String>> pathPrefixes,
+                      long activeFrom, long activeUntil) {
+            this.api = api;
+            this.position = position;
+            this.methods = methods;
+            this.hosts = hosts;
+            this.pathPrefixes = pathPrefixes;
+            this.activeFrom = activeFrom;
+            this.activeUntil = activeUntil;
+        }
+
+        private static Entry of(Api api, int position) {
+            ConstraintCollector collector = new ConstraintCollector();
+            if (api.getPredicate() != null) {
+                api.getPredicate().accept(collector);
+            }
+            if (collector.opaque) {
+                return new Entry(api, position, null, null, null, Long.MIN_VALUE, Long.MAX_VALUE);
+            }
+            return new Entry(api, position, collector.methods(), collector.hosts(), collector.pathPrefixes(),
+                    collector.activeFrom, collector.activeUntil);
+        }
+
+        private boolean accepts(HttpMethod method, String host, boolean exactHost) {
+            if (methods != null && (method == null || !methods[method.ordinal()])) {
+                return false;
+            }
+            if (hosts != null) {
+                if (host == null) {
+                    return false;
+                }
+                return !exactHost || hosts.contains(host);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Collects the Path/Host/Method configs of a predicate tree. Any disjunction or
+     * negation makes the whole tree opaque since its configs are no longer necessary
+     * conditions of a match.
+     */
+    private static class ConstraintCollector implements Visitor {
+
+        private boolean opaque;
+
+        private MethodRoutePredicateFactory.Config methodConfig;
+
+        private HostRoutePredicateFactory.Config hostConfig;
+
+        private PathRoutePredicateFactory.Config pathConfig;
+
+        private long activeFrom = Long.MIN_VALUE;
+
+        private long activeUntil = Long.MAX_VALUE;
+
+        @Override
+        public void visit(HasConfig hasConfig) {
+            if (hasConfig instanceof AsyncPredicate.OrAsyncPredicate
+                    || hasConfig instanceof AsyncPredicate.NegateAsyncPredicate
+                    || hasConfig instanceof SkylinePredicate.OrGatewayPredicate
+                    || hasConfig instanceof SkylinePredicate.NegateGatewayPredicate) {
+                opaque = true;
+                return;
+            }
+            Object config = hasConfig.getConfig();
+            if (config instanceof MethodRoutePredicateFactory.Config && methodConfig == null) {
+                methodConfig = (MethodRoutePredicateFactory.Config) config;
+            } else if (config instanceof HostRoutePredicateFactory.Config && hostConfig == null) {
+                hostConfig = (HostRoutePredicateFactory.Config) config;
+            } else if (config instanceof PathRoutePredicateFactory.Config && pathConfig == null) {
+                pathConfig = (PathRoutePredicateFactory.Config) config;
+            } else if (config instanceof AfterRoutePredicateFactory.Config) {
+                after(((AfterRoutePredicateFactory.Config) config).getDatetime());
+            } else if (config instanceof BeforeRoutePredicateFactory.Config) {
+                before(((BeforeRoutePredicateFactory.Config) config).getDatetime());
+            } else if (config instanceof BetweenRoutePredicateFactory.Config) {
+                after(((BetweenRoutePredicateFactory.Config) config).getDatetime1());
+                before(((BetweenRoutePredicateFactory.Config) config).getDatetime2());
+            }
+        }
+
+        /**
+         * the time predicates match strictly after / before their instant, in epoch millis.
+         */
+        private void after(ZonedDateTime datetime) {
+            if (datetime != null) {
+                activeFrom = Math.max(activeFrom, datetime.toInstant().toEpochMilli() + 1);
+            }
+        }
+
+        private void before(ZonedDateTime datetime) {
+            if (datetime != null) {
+                activeUntil = Math.min(activeUntil, datetime.toInstant().toEpochMilli());
+            }
+        }
+
+        private boolean[] methods() {
+            if (methodConfig == null || methodConfig.getMethods() == null) {
+                return null;
+            }
+            boolean[] methods = new boolean[HttpMethod.values().length];
+            for (HttpMethod method : methodConfig.getMethods()) {
+                if (method != null) {
+                    methods[method.ordinal()] = true;
+                }
+            }
+            return methods;
+        }
+
+        private Set<String> hosts() {
+            if (hostConfig == null || hostConfig.getPatterns() == null) {
+                return null;
+            }
+            Set<String> hosts = new HashSet<>();
+            for (String pattern : hostConfig.getPatterns()) {
+                // a pattern with empty labels matches hosts without them, it is no exact host
+                if (pattern == null || !isLiteral(pattern) || HostMatcher.hasEmptyLabel(pattern)) {
+                    return null;
+                }
+                hosts.add(pattern);
+            }
+            return hosts;
+        }
+
+        private List<List<String>> pathPrefixes() {
+            if (pathConfig == null || pathConfig.getPatterns() == null || pathConfig.getPatterns().isEmpty()) {
+                return null;
+            }
+            List<List<String>> prefixes = new ArrayList<>();
+            for (String pattern : pathConfig.getPatterns()) {
+                if (pattern == null || !pattern.startsWith("/")) {
+                    return null;
+                }
+                List<String> prefix = new ArrayList<>();
+                for (String segment : pattern.substring(1).split("/", -1)) {
+                    if (segment.isEmpty() || !isLiteral(segment) || segment.indexOf(';') >= 0) {
+                        break;
+                    }
+                    prefix.add(segment);
+                }
+                prefixes.add(prefix);
+            }
+            return prefixes;
+        }
+
+        private static boolean isLiteral(String pattern) {
+            return pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0 && pattern.indexOf('{') < 0;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.api.route;
+
+import org.apache.skyline.model.Api;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable route table of one refresh. Readers grab the current snapshot once and
+ * work on it, a refresh publishes a new snapshot instead of touching the old one.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 16:02
+ */
+public final class ApiSnapshot {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    public static final ApiSnapshot EMPTY = new ApiSnapshot(0, System.currentTimeMillis(), ApiRouteIndex.EMPTY, null);
+
+    private final long version;
+
+    private final long createTime;
+
+    private final ApiRouteIndex routeIndex;
+
+    private final RouteCache routeCache;
+
+    private ApiSnapshot(long version, long createTime, ApiRouteIndex routeIndex, RouteCache routeCache) {
+        this.version = version;
+        this.createTime = createTime;
+        this.routeIndex = routeIndex;
+        this.routeCache = routeCache;
+    }
+
+    public static ApiSnapshot of(List<Api> apis) {
+        return of(apis, 0);
+    }
+
+    /**
+     * @param routeCacheSize max route matches cached by the snapshot, 0 for no cache
+     */
+    public static ApiSnapshot of(List<Api> apis, int routeCacheSize) {
+        // exact time, a transition must not be built a tick early
+        long now = System.currentTimeMillis();
+        return new ApiSnapshot(VERSIONS.incrementAndGet(), now, ApiRouteIndex.build(apis, now),
+                routeCacheSize > 0 ? new RouteCache(routeCacheSize) : null);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public List<Api> getApis() {
+        return routeIndex.getApis();
+    }
+
+    /**
+     * @return ids of the api clusters backing the apis of this snapshot
+     */
+    public Set<Integer> getApiClusterIds() {
+        Set<Integer> ids = new HashSet<>();
+        for (Api api : getApis()) {
+            if (api.getApiCluster() != null) {
+                ids.add(api.getApiCluster().getId());
+            }
+        }
+        return ids;
+    }
+
+    public ApiRouteIndex getRouteIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * @return the route match cache of this snapshot, null when disabled
+     */
+    public RouteCache getRouteCache() {
+        return routeCache;
+    }
+
+    /**
+     * @return epoch millis from which this snapshot no longer reflects the active apis
+     */
+    public long getNextTransition() {
+        return routeIndex.getNextTransition();
+    }
+
+    @Override
+    public String toString() {
+        return "ApiSnapshot{version=" + version + ", apis=" + routeIndex.getApis().size() + "}";
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.api.route;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.skyline.engine.predicate.factory.HostRoutePredicateFactory;
+import org.apache.skyline.model.Api;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_API_IDENTITY;
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_MATCHED_PATH_API_IDENTITY;
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_MATCHED_PATH_ATTR;
+import static org.apache.skyline.commons.constant.CommonConstant.URI_TEMPLATE_VARIABLES_ATTRIBUTE;
+
+/**
+ * Bounded cache of the route matches of one {@link ApiSnapshot}, keyed by request method, Host
+ * header and raw path. A key may only be cached when every api tried for it is route key only,
+ * the same key then always ends in the same api with the same exchange attributes. The cache
+ * lives and dies with its snapshot, so a refresh never serves a match of the old apis.
+ * <p>
+ * Caffeine's W-TinyLFU admission keeps the hot keys when scans of cold paths come by.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 17:05
+ */
+public final class RouteCache {
+
+    /**
+     * attributes the predicates of a route key only api write while matching.
+     */
+    private static final String[] MATCH_ATTRIBUTES = {URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+            GATEWAY_PREDICATE_MATCHED_PATH_ATTR, GATEWAY_PREDICATE_MATCHED_PATH_API_IDENTITY, GATEWAY_PREDICATE_API_IDENTITY};
+
+    private final Cache<Key, Match> cache;
+
+    RouteCache(int maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public static Key key(ServerWebExchange exchange) {
+        return new Key(exchange.getRequest().getMethodValue(),
+                exchange.getRequest().getHeaders().getFirst(HostRoutePredicateFactory.HOST_KEY),
+                exchange.getRequest().getURI().getRawPath());
+    }
+
+    public Match get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Caches the outcome of a lookup just done on the exchange.
+     *
+     * @param api the matched api, null when no api matched
+     */
+    @SuppressWarnings("unchecked")
+    public void put(Key key, Api api, ServerWebExchange exchange) {
+        Object[] attributes = new Object[MATCH_ATTRIBUTES.length];
+        for (int i = 0; i < MATCH_ATTRIBUTES.length; i++) {
+            Object value = exchange.getAttribute(MATCH_ATTRIBUTES[i]);
+            // the exchange may still change its variables, the cache keeps its own copy
+            attributes[i] = value instanceof Map ? new HashMap<>((Map<String, String>) value) : value;
+        }
+        cache.put(key, new Match(api, attributes));
+    }
+
+
+    public static final class Key {
+
+        private final String method;
+
+        private final String host;
+
+        private final String rawPath;
+
+        private final int hash;
+
+        private Key(String method, String host, String rawPath) {
+            this.method = method;
+            this.host = host;
+            this.rawPath = rawPath;
+            this.hash = Objects.hash(method, host, rawPath);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && Objects.equals(rawPath, key.rawPath) && Objects.equals(host, key.host)
+                    && Objects.equals(method, key.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public static final class Match {
+
+        private final Api api;
+
+        private final Object[] attributes;
+
+        private Match(Api api, Object[] attributes) {
+            this.api = api;
+            this.attributes = attributes;
+        }
+
+        /**
+         * @return the matched api, null when no api matched the key
+         */
+        public Api getApi() {
+            return api;
+        }
+
+        /**
+         * Writes the attributes the predicates wrote when the match was cached.
+         */
+        @SuppressWarnings("unchecked")
+        public void replay(ServerWebExchange exchange) {
+            Map<String, Object> target = exchange.getAttributes();
+            for (int i = 0; i < MATCH_ATTRIBUTES.length; i++) {
+                Object value = attributes[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof Map) {
+                    // the variables are handed out mutable, every exchange gets its own copy
+                    value = new HashMap<>((Map<String, String>) value);
+                }
+                target.put(MATCH_ATTRIBUTES[i], value);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.circuitbreaker;
+
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.enums.CircuitBreakerState;
+import org.apache.skyline.engine.support.CoarseClock;
+import org.apache.skyline.plugin.api.CapableSwitch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free circuit breaker of one upstream.
+ * <p>
+ * Closed, every call feeds a {@link SlidingWindow}; once the window holds the minimum calls
+ * and its failure rate or slow call rate reaches the threshold the breaker opens. Open, calls
+ * fail fast for the wait duration, then the breaker turns half open and lets the permitted
+ * trial calls through. Their rates close the breaker again or open it for another wait.
+ * <p>
+ * The state is exported as a {@link CapableSwitch}: reading it returns the live state,
+ * setting it moves the breaker there, e.g. FORCED_OPEN trips it during an incident.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 21:55
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+
+    private final SlidingWindow window;
+
+    private final int minimumCalls;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long waitMillis;
+
+    private final int permittedTrialCalls;
+
+    private final AtomicReference<CircuitBreakerState> state = new AtomicReference<>(CircuitBreakerState.CLOSED);
+
+    private volatile long openedAt;
+
+    private final AtomicInteger trialPermits = new AtomicInteger();
+
+    private final AtomicInteger trialCalls = new AtomicInteger();
+
+    private final AtomicInteger trialFailures = new AtomicInteger();
+
+    private final AtomicInteger trialSlowCalls = new AtomicInteger();
+
+    private final StateSwitch stateSwitch;
+
+    public CircuitBreaker(String name, SkylineProperties.CircuitBreaker config) {
+        this.name = name;
+        this.window = new SlidingWindow((int) Math.max(1, config.getSlidingWindow().getSeconds()));
+        this.minimumCalls = Math.max(1, config.getMinimumCalls());
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallNanos = config.getSlowCallDuration().toNanos();
+        this.waitMillis = config.getWaitDurationInOpenState().toMillis();
+        this.permittedTrialCalls = Math.max(1, config.getPermittedCallsInHalfOpenState());
+        this.stateSwitch = new StateSwitch(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreakerState getState() {
+        return state.get();
+    }
+
+    public CapableSwitch<CircuitBreakerState> getStateSwitch() {
+        return stateSwitch;
+    }
+
+    /**
+     * @return whether the call may go upstream, a permitted call must be followed by
+     * {@link #onResult(long, boolean)} or {@link #onCancel()}
+     */
+    public boolean tryAcquire() {
+        switch (state.get()) {
+            case CLOSED:
+            case FORCED_CLOSED:
+                return true;
+            case OPEN:
+                if (CoarseClock.currentTimeMillis() - openedAt < waitMillis) {
+                    return false;
+                }
+                if (state.compareAndSet(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN)) {
+                    startTrial();
+                    LOG.info("circuit breaker {} half open, trying {} calls.", name, permittedTrialCalls);
+                }
+                return acquireTrial();
+            case HALF_OPEN:
+                return acquireTrial();
+            case FORCED_OPEN:
+            default:
+                return false;
+        }
+    }
+
+    public void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos >= slowCallNanos;
+        CircuitBreakerState current = state.get();
+        if (current == CircuitBreakerState.CLOSED) {
+            window.record(failed, slow);
+            // the rates only grow with a failed or slow call
+            if ((failed || slow) && exceeds(window.snapshot())) {
+                open(CircuitBreakerState.CLOSED);
+            }
+        } else if (current == CircuitBreakerState.HALF_OPEN) {
+            if (failed) {
+                trialFailures.incrementAndGet();
+            }
+            if (slow) {
+                trialSlowCalls.incrementAndGet();
+            }
+            // counted last, the call completing the trial sees the outcomes of all others
+            if (trialCalls.incrementAndGet() == permittedTrialCalls) {
+                long[] trial = {permittedTrialCalls, trialFailures.get(), trialSlowCalls.get()};
+                if (exceedsRates(trial)) {
+                    open(CircuitBreakerState.HALF_OPEN);
+                } else if (state.compareAndSet(CircuitBreakerState.HALF_OPEN, CircuitBreakerState.CLOSED)) {
+                    window.reset();
+                    LOG.info("circuit breaker {} closed after {} trial calls.", name, permittedTrialCalls);
+                }
+            }
+        }
+    }
+
+    /**
+     * A permitted call which never completed, e.g. the client went away.
+     */
+    public void onCancel() {
+        if (state.get() == CircuitBreakerState.HALF_OPEN) {
+            trialPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Moves the breaker to the state, used by operators through the state switch.
+     */
+    public void transitionTo(CircuitBreakerState target) {
+        if (target == CircuitBreakerState.OPEN) {
+            openedAt = CoarseClock.currentTimeMillis();
+        } else if (target == CircuitBreakerState.CLOSED) {
+            window.reset();
+        } else if (target == CircuitBreakerState.HALF_OPEN) {
+            startTrial();
+        }
+        CircuitBreakerState previous = state.getAndSet(target);
+        LOG.warn("circuit breaker {} switched from {} to {}.", name, previous, target);
+    }
+
+    private boolean exceeds(long[] totals) {
+        return totals[0] >= minimumCalls && exceedsRates(totals);
+    }
+
+    private boolean exceedsRates(long[] totals) {
+        return totals[1] * 100 >= (long) failureRateThreshold * totals[0]
+                || totals[2] * 100 >= (long) slowCallRateThreshold * totals[0];
+    }
+
+    private void open(CircuitBreakerState expected) {
+        // stamped before the state flips, a caller seeing OPEN must not read the last opening
+        openedAt = CoarseClock.currentTimeMillis();
+        if (state.compareAndSet(expected, CircuitBreakerState.OPEN)) {
+            LOG.warn("circuit breaker {} opened from {}, failing fast for {} ms.", name, expected, waitMillis);
+        }
+    }
+
+    private void startTrial() {
+        trialCalls.set(0);
+        trialFailures.set(0);
+        trialSlowCalls.set(0);
+        // permits last, no trial call may complete before the counters are reset
+        trialPermits.set(permittedTrialCalls);
+    }
+
+    private boolean acquireTrial() {
+        return trialPermits.get() > 0 && trialPermits.getAndDecrement() > 0;
+    }
+
+    private class StateSwitch extends CapableSwitch<CircuitBreakerState> {
+
+        private StateSwitch(String name) {
+            super(name);
+            setDesc("state of the circuit breaker, set to move it to that state");
+        }
+
+        @Override
+        public CircuitBreakerState getValue(CircuitBreakerState defaultValue) {
+            return getState();
+        }
+
+        @Override
+        public void setValue(CircuitBreakerState value) {
+            if (value != null) {
+                transitionTo(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.circuitbreaker;
+
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.enums.CircuitBreakerState;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.model.support.HttpMsg;
+import org.apache.skyline.plugin.PluginManager;
+import org.apache.skyline.plugin.api.CapableSwitch;
+import org.apache.skyline.plugin.api.DefaultCapableSwitchManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the circuit breakers keyed on the api cluster id, or on cluster id and api
+ * identification when breaking per api. The state switch of every breaker is registered in
+ * the capable switch group named after {@link CircuitBreaker}, under the breaker name.
+ * Breakers whose cluster or api is gone from the published snapshot are dropped together
+ * with their switch.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 22:10
+ */
+public class CircuitBreakerManager implements ApplicationListener<RefreshApiResultEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerManager.class);
+
+    private final SkylineProperties.CircuitBreaker config;
+
+    private final DefaultCapableSwitchManager capableSwitchManager;
+
+    private final HttpMsg rejection;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerManager(SkylineProperties skylineProperties, PluginManager pluginManager) {
+        this.config = skylineProperties.getUpstream().getCircuitBreaker();
+        this.capableSwitchManager = pluginManager.getCapableSwitchManager();
+        this.rejection = new HttpMsg(config.getRejectHttpCode(), config.getRejectMsg(), config.getRejectCode());
+    }
+
+    /**
+     * @return the breaker guarding the upstream of the api, null when circuit breaking is disabled
+     */
+    public CircuitBreaker getCircuitBreaker(Api api) {
+        if (!config.isEnabled() || api.getApiCluster() == null) {
+            return null;
+        }
+        String name = name(api);
+        CircuitBreaker breaker = breakers.get(name);
+        return breaker != null ? breaker : breakers.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * @return the response of calls rejected by an open breaker
+     */
+    public HttpMsg getRejection() {
+        return rejection;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshApiResultEvent event) {
+        ApiSnapshot snapshot = event.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        for (Api api : snapshot.getApis()) {
+            if (api.getApiCluster() != null) {
+                live.add(name(api));
+            }
+        }
+        DefaultCapableSwitchManager.Group group = capableSwitchManager.getGroupSwitches(CircuitBreaker.class.getName());
+        breakers.values().removeIf(breaker -> {
+            if (live.contains(breaker.getName())) {
+                return false;
+            }
+            LOG.info("circuit breaker {} is gone, dropping it.", breaker.getName());
+            group.unregister(breaker.getStateSwitch());
+            return true;
+        });
+    }
+
+    private String name(Api api) {
+        return config.isPerApi()
+                ? "cluster-" + api.getApiCluster().getId() + "/" + api.getIdentification()
+                : "cluster-" + api.getApiCluster().getId();
+    }
+
+    private CircuitBreaker create(String name) {
+        CircuitBreaker breaker = new CircuitBreaker(name, config);
+        DefaultCapableSwitchManager.Group group = capableSwitchManager.getGroupSwitches(CircuitBreaker.class.getName());
+        // an operator may have set the switch before the first call created the breaker
+        CapableSwitch<?> preset = group.getCapableSwitchHashMap().put(name, breaker.getStateSwitch());
+        Object value = preset == null ? null : preset.getValue(null);
+        if (value instanceof CircuitBreakerState) {
+            breaker.transitionTo((CircuitBreakerState) value);
+        } else if (value != null) {
+            try {
+                breaker.transitionTo(CircuitBreakerState.valueOf(value.toString()));
+            } catch (IllegalArgumentException e) {
+                LOG.warn("circuit breaker {} ignores unknown preset state {}.", name, value);
+            }
+        }
+        LOG.info("circuit breaker {} created in state {}.", name, breaker.getState());
+        return breaker;
+    }
+}
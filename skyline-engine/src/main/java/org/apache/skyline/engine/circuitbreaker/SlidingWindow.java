@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.circuitbreaker;
+
+import org.apache.skyline.engine.support.CoarseClock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time based sliding window of call outcomes: a ring of one second buckets, each packed
+ * into a single long of four 16 bit fields so a call is recorded with one CAS and a bucket
+ * is rolled over together with its counters.
+ * <pre>
+ * | second stamp | calls | failures | slow calls |
+ * </pre>
+ * A bucket stops counting at 65535 calls, the rates stay representative.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 21:45
+ */
+class SlidingWindow {
+
+    private static final int FIELD_BITS = 16;
+
+    private static final long FIELD_MASK = 0xFFFFL;
+
+    private static final long SLOW = 1L;
+
+    private static final long FAILURE = SLOW << FIELD_BITS;
+
+    private static final long CALL = FAILURE << FIELD_BITS;
+
+    private static final int STAMP_SHIFT = FIELD_BITS * 3;
+
+    private final AtomicLongArray buckets;
+
+    SlidingWindow(int seconds) {
+        this.buckets = new AtomicLongArray(Math.max(1, seconds));
+    }
+
+    void record(boolean failed, boolean slow) {
+        long second = CoarseClock.currentTimeMillis() / 1000;
+        int index = (int) (second % buckets.length());
+        long stamp = second & FIELD_MASK;
+        long delta = CALL + (failed ? FAILURE : 0) + (slow ? SLOW : 0);
+        long current;
+        long next;
+        do {
+            current = buckets.get(index);
+            if (current >>> STAMP_SHIFT != stamp) {
+                // the bucket still holds a second which left the window
+                next = stamp << STAMP_SHIFT | delta;
+            } else if ((current >>> (FIELD_BITS * 2) & FIELD_MASK) == FIELD_MASK) {
+                return;
+            } else {
+                next = current + delta;
+            }
+        } while (!buckets.compareAndSet(index, current, next));
+    }
+
+    /**
+     * @return calls, failures and slow calls of the window
+     */
+    long[] snapshot() {
+        long second = CoarseClock.currentTimeMillis() / 1000;
+        int length = buckets.length();
+        long[] totals = new long[3];
+        for (int i = 0; i < length; i++) {
+            long bucket = buckets.get(i);
+            long age = (second - (bucket >>> STAMP_SHIFT)) & FIELD_MASK;
+            if (bucket == 0 || age >= length) {
+                continue;
+            }
+            totals[0] += bucket >>> (FIELD_BITS * 2) & FIELD_MASK;
+            totals[1] += bucket >>> FIELD_BITS & FIELD_MASK;
+            totals[2] += bucket & FIELD_MASK;
+        }
+        return totals;
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+    }
+}
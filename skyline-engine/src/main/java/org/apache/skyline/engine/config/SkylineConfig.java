@@ -16,13 +16,22 @@
 package org.apache.skyline.engine.config;
 
 import org.apache.skyline.engine.api.ApiLocator;
+import org.apache.skyline.engine.api.SnapshotApiLocator;
 import org.apache.skyline.engine.api.locator.ApiDefinitionLocator;
 import org.apache.skyline.engine.api.locator.CachingApiLocator;
 import org.apache.skyline.engine.api.locator.CompositeApiDefinitionLocator;
 import org.apache.skyline.engine.api.locator.CompositeApiLocator;
 import org.apache.skyline.engine.api.locator.DefaultApiLocator;
 import org.apache.skyline.engine.api.locator.TestApiDefinitionLocator;
+import org.apache.skyline.engine.circuitbreaker.CircuitBreakerManager;
 import org.apache.skyline.engine.controller.EntryController;
+import org.apache.skyline.engine.forward.ForwardingHandler;
+import org.apache.skyline.engine.forward.HedgingManager;
+import org.apache.skyline.engine.forward.HttpClientManager;
+import org.apache.skyline.engine.forward.RetryManager;
+import org.apache.skyline.engine.loadbalancer.HealthChecker;
+import org.apache.skyline.engine.loadbalancer.LoadBalancerManager;
+import org.apache.skyline.engine.loader.PluginClassLoaderManager;
 import org.apache.skyline.engine.predicate.factory.AfterRoutePredicateFactory;
 import org.apache.skyline.engine.predicate.factory.BeforeRoutePredicateFactory;
 import org.apache.skyline.engine.predicate.factory.BetweenRoutePredicateFactory;
@@ -58,7 +67,7 @@ import java.util.List;
 public class SkylineConfig {
 
     @Bean
-    public EntryController entryController(@Qualifier("cachingApiLocator") ApiLocator cachingApiLocator) {
+    public EntryController entryController(@Qualifier("cachingApiLocator") SnapshotApiLocator cachingApiLocator) {
         return new EntryController(cachingApiLocator);
     }
 
@@ -67,8 +76,48 @@ public class SkylineConfig {
                                         PredicateFactoryManager predicateFactoryManager,
                                         ConfigurationService configurationService,
                                         SkylineProperties skylineProperties,
-                                        PluginManager pluginManager) {
-        return new DefaultApiLocator(compositeApiDefinitionLocator, predicateFactoryManager, configurationService, pluginManager, skylineProperties);
+                                        PluginManager pluginManager,
+                                        ForwardingHandler forwardingHandler) {
+        return new DefaultApiLocator(compositeApiDefinitionLocator, predicateFactoryManager, configurationService,
+                pluginManager, skylineProperties, forwardingHandler);
+    }
+
+    @Bean
+    public HttpClientManager httpClientManager(SkylineProperties skylineProperties) {
+        return new HttpClientManager(skylineProperties);
+    }
+
+    @Bean
+    public LoadBalancerManager loadBalancerManager(SkylineProperties skylineProperties) {
+        return new LoadBalancerManager(skylineProperties);
+    }
+
+    @Bean
+    public HealthChecker healthChecker(SkylineProperties skylineProperties, LoadBalancerManager loadBalancerManager) {
+        return new HealthChecker(skylineProperties, loadBalancerManager);
+    }
+
+    @Bean
+    public CircuitBreakerManager circuitBreakerManager(SkylineProperties skylineProperties, PluginManager pluginManager) {
+        return new CircuitBreakerManager(skylineProperties, pluginManager);
+    }
+
+    @Bean
+    public HedgingManager hedgingManager(SkylineProperties skylineProperties) {
+        return new HedgingManager(skylineProperties);
+    }
+
+    @Bean
+    public RetryManager retryManager(SkylineProperties skylineProperties) {
+        return new RetryManager(skylineProperties);
+    }
+
+    @Bean
+    public ForwardingHandler forwardingHandler(HttpClientManager httpClientManager, LoadBalancerManager loadBalancerManager,
+                                               HealthChecker healthChecker, CircuitBreakerManager circuitBreakerManager,
+                                               HedgingManager hedgingManager, RetryManager retryManager) {
+        return new ForwardingHandler(httpClientManager, loadBalancerManager, healthChecker, circuitBreakerManager,
+                hedgingManager, retryManager);
     }
 
     @Bean
@@ -77,8 +126,9 @@ public class SkylineConfig {
     }
 
     @Bean
-    public ApiLocator cachingApiLocator(@Qualifier("compositeApiLocator") ApiLocator compositeApiLocator) {
-        return new CachingApiLocator(compositeApiLocator);
+    public CachingApiLocator cachingApiLocator(@Qualifier("compositeApiLocator") ApiLocator compositeApiLocator,
+                                               SkylineProperties skylineProperties) {
+        return new CachingApiLocator(compositeApiLocator, skylineProperties.getRouteCacheSize());
     }
 
     @Bean
@@ -87,8 +137,9 @@ public class SkylineConfig {
     }
 
     @Bean
-    public ApiDefinitionLocator testApiDefinitionLocator(SkylineProperties skylineProperties, PluginDefinitionManager pluginDefinitionManager) {
-        return new TestApiDefinitionLocator(skylineProperties, pluginDefinitionManager);
+    public ApiDefinitionLocator testApiDefinitionLocator(SkylineProperties skylineProperties, PluginDefinitionManager pluginDefinitionManager,
+                                                         PluginClassLoaderManager pluginClassLoaderManager) {
+        return new TestApiDefinitionLocator(skylineProperties, pluginDefinitionManager, pluginClassLoaderManager);
     }
 
     @Bean
@@ -154,8 +205,14 @@ public class SkylineConfig {
     }
 
     @Bean
-    public PluginManager pluginManager() {
-        return new PluginManager();
+    public PluginClassLoaderManager pluginClassLoaderManager(SkylineProperties skylineProperties,
+                                                             ObjectProvider<PluginManager> pluginManager) {
+        return new PluginClassLoaderManager(skylineProperties, pluginManager);
+    }
+
+    @Bean
+    public PluginManager pluginManager(PluginClassLoaderManager pluginClassLoaderManager) {
+        return new PluginManager(pluginClassLoaderManager::getClassLoader, pluginClassLoaderManager::getVersion);
     }
 
     @Bean
@@ -17,9 +17,15 @@ package org.apache.skyline.engine.config;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skyline.model.enums.LoadBalancerType;
+import org.apache.skyline.model.support.HttpMsg;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author lijian
  * @since time: 2022-09-13 15:01
@@ -33,4 +39,224 @@ public class SkylineProperties {
     public static final String PREFIX = "skyline";
 
     private String pluginPath = "plugins";
+
+    /**
+     * reload plugin jars changed in the plugin dir while running.
+     */
+    private boolean pluginHotReload = true;
+
+    /**
+     * quiet period after the last change of a jar before it is reloaded.
+     */
+    private Duration pluginReloadDelay = Duration.ofMillis(500);
+
+    /**
+     * how long a replaced plugin class loader stays open for requests still running on it.
+     */
+    private Duration pluginUnloadDelay = Duration.ofSeconds(30);
+
+    /**
+     * max route matches kept per api snapshot by request method, host and path, 0 disables the cache.
+     */
+    private int routeCacheSize = 0;
+
+    private Upstream upstream = new Upstream();
+
+    /**
+     * settings of the connection pool kept per api cluster.
+     */
+    @Setter
+    @Getter
+    public static class Upstream {
+
+        private int maxConnections = 500;
+
+        /**
+         * max number of requests waiting for a connection, -1 means unbounded.
+         */
+        private int pendingAcquireMaxCount = 1000;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(3);
+
+        /**
+         * null means no response timeout.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(30);
+
+        /**
+         * used by clusters which do not choose a load balancer themselves.
+         */
+        private LoadBalancerType loadBalancer = LoadBalancerType.ROUND_ROBIN;
+
+        /**
+         * how fast old latency samples fade out of the peak ewma.
+         */
+        private Duration ewmaDecayTime = Duration.ofSeconds(10);
+
+        private HealthCheck healthCheck = new HealthCheck();
+
+        private OutlierDetection outlierDetection = new OutlierDetection();
+
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        private Hedging hedging = new Hedging();
+
+        private Retry retry = new Retry();
+    }
+
+    /**
+     * periodic http probe of every upstream endpoint.
+     */
+    @Setter
+    @Getter
+    public static class HealthCheck {
+
+        private boolean enabled = false;
+
+        private String path = "/health";
+
+        private Duration interval = Duration.ofSeconds(10);
+
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * consecutive failed probes taking an endpoint out of the selection.
+         */
+        private int unhealthyThreshold = 3;
+
+        /**
+         * consecutive passed probes bringing an unhealthy endpoint back.
+         */
+        private int healthyThreshold = 2;
+    }
+
+    /**
+     * ejection of endpoints failing live traffic with 5xx responses or connect failures.
+     */
+    @Setter
+    @Getter
+    public static class OutlierDetection {
+
+        private boolean enabled = true;
+
+        private int consecutiveFailures = 5;
+
+        /**
+         * cool-down of the first ejection, doubled on every ejection following shortly.
+         */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+    }
+
+    /**
+     * circuit breaker per api cluster, optionally per api, failing fast while open.
+     */
+    @Setter
+    @Getter
+    public static class CircuitBreaker {
+
+        private boolean enabled = false;
+
+        /**
+         * one breaker per api instead of one per api cluster.
+         */
+        private boolean perApi = false;
+
+        /**
+         * length of the sliding window, counted in one second buckets.
+         */
+        private Duration slidingWindow = Duration.ofSeconds(10);
+
+        /**
+         * calls the window needs before its rates may open the breaker.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * percentage of failed calls opening the breaker, failures are 5xx and forward errors.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * percentage of slow calls opening the breaker.
+         */
+        private int slowCallRateThreshold = 100;
+
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+
+        /**
+         * trial calls let through half open, they decide between closing and opening again.
+         */
+        private int permittedCallsInHalfOpenState = 5;
+
+        private int rejectHttpCode = HttpMsg.CIRCUIT_BREAKER_OPEN.getHttpCode();
+
+        private String rejectMsg = HttpMsg.CIRCUIT_BREAKER_OPEN.getMsg();
+
+        private String rejectCode = HttpMsg.CIRCUIT_BREAKER_OPEN.getCode();
+    }
+
+    /**
+     * hedged requests of the apis enabling them in their metadata.
+     */
+    @Setter
+    @Getter
+    public static class Hedging {
+
+        /**
+         * max extra load of the hedges, in percent of the hedgeable requests.
+         */
+        private double budgetPercent = 5;
+
+        /**
+         * response times an api needs before its percentile is trusted.
+         */
+        private int minSamples = 100;
+
+        /**
+         * the latency histogram covers the last one to two windows.
+         */
+        private Duration window = Duration.ofSeconds(10);
+    }
+
+    /**
+     * retries of failed upstream requests, idempotent methods only unless an api opts in.
+     */
+    @Setter
+    @Getter
+    public static class Retry {
+
+        private boolean enabled = false;
+
+        private int maxRetries = 2;
+
+        /**
+         * response statuses retried besides connect failures.
+         */
+        private List<Integer> statuses = new ArrayList<>(List.of(502, 503, 504));
+
+        /**
+         * cap of the first backoff, the cap doubles per retry and the backoff is drawn below it.
+         */
+        private Duration firstBackoff = Duration.ofMillis(25);
+
+        private Duration maxBackoff = Duration.ofSeconds(1);
+
+        /**
+         * max extra load of the retries per api cluster, in percent of its requests.
+         */
+        private double budgetPercent = 20;
+
+        /**
+         * request bodies up to this size are buffered to be sent again, larger ones are never retried.
+         */
+        private int maxBodyBytes = 64 * 1024;
+    }
 }
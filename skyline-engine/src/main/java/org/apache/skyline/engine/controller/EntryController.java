@@ -16,12 +16,14 @@
 package org.apache.skyline.engine.controller;
 
 import org.apache.skyline.commons.exception.SkylineException;
-import org.apache.skyline.engine.api.ApiLocator;
+import org.apache.skyline.engine.api.SnapshotApiLocator;
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.api.route.RouteCache;
 import org.apache.skyline.engine.handler.SkylineHandler;
 import org.apache.skyline.engine.support.ServerWebExchangeUtils;
 import org.apache.skyline.model.Api;
+import org.apache.skyline.model.predicate.AsyncPredicate;
 import org.apache.skyline.model.support.HttpMsg;
-import org.apache.skyline.plugin.DefaultPluginChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -32,9 +34,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_API_ATTR;
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_API_SNAPSHOT_VERSION_ATTR;
 import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_API_IDENTITY;
 
 /**
@@ -46,13 +51,13 @@ public class EntryController {
 
     private static final Logger LOG = LoggerFactory.getLogger(EntryController.class);
 
-    private final ApiLocator apiLocator;
+    private final SnapshotApiLocator apiLocator;
 
     private final SkylineHandler coreHandler;
 
     private final SkylineHandler emptyHandler;
 
-    public EntryController(ApiLocator apiLocator) {
+    public EntryController(SnapshotApiLocator apiLocator) {
         this.apiLocator = apiLocator;
         this.coreHandler = new CoreHandler();
         this.emptyHandler = new EmptyHandler();
@@ -60,14 +65,15 @@ public class EntryController {
 
     @RequestMapping("/**")
     public Mono<Void> entry(ServerWebExchange exchange) {
-        return lookApis(exchange).flatMap((Function<Api, Mono<SkylineHandler>>) api -> {
+        return lookApis(exchange).map((Function<Api, SkylineHandler>) api -> {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Mapping [" + ServerWebExchangeUtils.getExchangeDesc(exchange) + "] to " + api);
+                LOG.debug("Mapping [" + ServerWebExchangeUtils.getExchangeDesc(exchange) + "] to " + api
+                        + " by snapshot " + exchange.getAttribute(GATEWAY_API_SNAPSHOT_VERSION_ATTR));
             }
 
             exchange.getAttributes().put(GATEWAY_API_ATTR, api);
-            return Mono.just(coreHandler);
-        }).switchIfEmpty(Mono.just(emptyHandler)).flatMap(h -> h.handle(exchange));
+            return coreHandler;
+        }).defaultIfEmpty(emptyHandler).flatMap(h -> h.handle(exchange));
     }
 
     private static class EmptyHandler implements SkylineHandler {
@@ -93,25 +99,71 @@ public class EntryController {
                 throw new SkylineException("not found api from attribute");
             }
             Api api = (Api) objAttr;
-            return new DefaultPluginChain(api.getPluginWrappers()).handle(serverWebExchange);
+            return api.getPluginChain().handle(serverWebExchange);
         }
     }
 
     private Mono<Api> lookApis(ServerWebExchange serverWebExchange) {
-        return apiLocator.getApis().concatMap(
+        ApiSnapshot snapshot = apiLocator.getSnapshot();
+        serverWebExchange.getAttributes().put(GATEWAY_API_SNAPSHOT_VERSION_ATTR, snapshot.getVersion());
+        RouteCache routeCache = snapshot.getRouteCache();
+        RouteCache.Key key = null;
+        if (routeCache != null) {
+            key = RouteCache.key(serverWebExchange);
+            RouteCache.Match cached = routeCache.get(key);
+            if (cached != null) {
+                cached.replay(serverWebExchange);
+                return cached.getApi() == null ? Mono.empty() : Mono.just(matched(cached.getApi(), serverWebExchange));
+            }
+        }
+        // the outcome only depends on the key as long as every api tried is route key only
+        boolean cacheable = routeCache != null;
+        List<Api> apis = snapshot.getRouteIndex().lookup(serverWebExchange);
+        for (int i = 0; i < apis.size(); i++) {
+            Api api = apis.get(i);
+            AsyncPredicate<ServerWebExchange> asyncPredicate = api.getPredicate();
+            Predicate<ServerWebExchange> predicate = asyncPredicate == null ? null : asyncPredicate.toSyncPredicate();
+            if (predicate == null) {
+                // only enter reactor once a genuinely async predicate shows up
+                return lookApisAsync(apis.subList(i, apis.size()), serverWebExchange);
+            }
+            cacheable &= api.isRouteKeyOnly();
+            serverWebExchange.getAttributes().put(GATEWAY_PREDICATE_API_IDENTITY, api.getIdentification());
+            try {
+                if (predicate.test(serverWebExchange)) {
+                    if (cacheable) {
+                        routeCache.put(key, api, serverWebExchange);
+                    }
+                    return Mono.just(matched(api, serverWebExchange));
+                }
+            } catch (Throwable e) {
+                cacheable = false;
+                LOG.error("Error applying predicate for route: " + api.getIdentification(), e);
+            }
+        }
+        if (cacheable) {
+            routeCache.put(key, null, serverWebExchange);
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Api> lookApisAsync(List<Api> apis, ServerWebExchange serverWebExchange) {
+        return Flux.fromIterable(apis).concatMap(
                 api -> Mono.just(api).filterWhen(a -> {
                             serverWebExchange.getAttributes().put(GATEWAY_PREDICATE_API_IDENTITY, api.getIdentification());
                             return a.getPredicate().apply(serverWebExchange);
                         })
                         .doOnError(e -> LOG.error("Error applying predicate for route: " + api.getIdentification(), e))
                         .onErrorResume(e -> Mono.empty())
-        ).next().map(api -> {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Route matched: " + api.getIdentification());
-            }
-            validateRoute(api, serverWebExchange);
-            return api;
-        });
+        ).next().map(api -> matched(api, serverWebExchange));
+    }
+
+    private Api matched(Api api, ServerWebExchange serverWebExchange) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Route matched: " + api.getIdentification());
+        }
+        validateRoute(api, serverWebExchange);
+        return api;
     }
 
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.enums;
+
+/**
+ * State of an upstream circuit breaker, the forced states are only entered by operators.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 21:40
+ */
+public enum CircuitBreakerState {
+    /**
+     * calls pass and feed the sliding window.
+     */
+    CLOSED,
+    /**
+     * calls fail fast until the wait duration passed.
+     */
+    OPEN,
+    /**
+     * a few trial calls pass and decide between closing and opening again.
+     */
+    HALF_OPEN,
+    /**
+     * calls fail fast until an operator releases the breaker.
+     */
+    FORCED_OPEN,
+    /**
+     * calls always pass and nothing is recorded.
+     */
+    FORCED_CLOSED
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.enums;
+
+/**
+ * Static cost class of a route predicate, cheaper classes are evaluated first.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 19:45
+ */
+public enum PredicateCost {
+    /**
+     * constant time checks on already parsed request data, e.g. method or clock.
+     */
+    CHEAP,
+    /**
+     * bounded lookups, e.g. address tries or header scans.
+     */
+    MODERATE,
+    /**
+     * pattern matching over the path or host.
+     */
+    PATTERN,
+    /**
+     * regex matching over arbitrary request values.
+     */
+    EXPENSIVE
+}
@@ -15,6 +15,7 @@
  */
 package org.apache.skyline.engine.event;
 
+import org.apache.skyline.engine.api.route.ApiSnapshot;
 import org.springframework.context.ApplicationEvent;
 
 /**
@@ -24,6 +25,7 @@ import org.springframework.context.ApplicationEvent;
 public class RefreshApiResultEvent extends ApplicationEvent {
     private static final long serialVersionUID = -4598947851116771325L;
     private Throwable throwable;
+    private transient ApiSnapshot snapshot;
 
     public RefreshApiResultEvent(Object source, Throwable throwable) {
         super(source);
@@ -34,10 +36,22 @@ public class RefreshApiResultEvent extends ApplicationEvent {
         super(source);
     }
 
+    public RefreshApiResultEvent(Object source, ApiSnapshot snapshot) {
+        super(source);
+        this.snapshot = snapshot;
+    }
+
     public Throwable getThrowable() {
         return throwable;
     }
 
+    /**
+     * @return the published snapshot, null when the refresh failed
+     */
+    public ApiSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     public boolean isSuccess() {
         return throwable == null;
     }
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.apache.skyline.commons.exception.SkylineException;
+import org.apache.skyline.engine.circuitbreaker.CircuitBreaker;
+import org.apache.skyline.engine.circuitbreaker.CircuitBreakerManager;
+import org.apache.skyline.engine.loadbalancer.Endpoint;
+import org.apache.skyline.engine.loadbalancer.HealthChecker;
+import org.apache.skyline.engine.loadbalancer.LoadBalancer;
+import org.apache.skyline.engine.loadbalancer.LoadBalancerManager;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.model.ApiCluster;
+import org.apache.skyline.model.support.HttpMsg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_API_ATTR;
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_RETRY_COUNT_ATTR;
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_UPSTREAM_ENDPOINT_ATTR;
+
+/**
+ * Terminal stage of the plugin chain, proxies the exchange to an endpoint of the cluster of
+ * the matched api picked by its load balancer.
+ * Request and response bodies are streamed buffer by buffer, nothing is aggregated.
+ * Every upstream outcome is reported to the {@link HealthChecker} for outlier detection and
+ * to the {@link CircuitBreaker} of the upstream, an open breaker fails the call fast.
+ * Apis enabling it are hedged as decided by the {@link HedgingManager}, failed attempts are
+ * retried on another endpoint as decided by the {@link RetryManager}.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 14:20
+ */
+public class ForwardingHandler implements WebHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ForwardingHandler.class);
+
+    /**
+     * rfc 7230 hop-by-hop headers, host is recomputed from the upstream uri.
+     */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade", "host");
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final HttpClientManager httpClientManager;
+
+    private final LoadBalancerManager loadBalancerManager;
+
+    private final HealthChecker healthChecker;
+
+    private final CircuitBreakerManager circuitBreakerManager;
+
+    private final HedgingManager hedgingManager;
+
+    private final RetryManager retryManager;
+
+    public ForwardingHandler(HttpClientManager httpClientManager, LoadBalancerManager loadBalancerManager,
+                             HealthChecker healthChecker, CircuitBreakerManager circuitBreakerManager,
+                             HedgingManager hedgingManager, RetryManager retryManager) {
+        this.httpClientManager = httpClientManager;
+        this.loadBalancerManager = loadBalancerManager;
+        this.healthChecker = healthChecker;
+        this.circuitBreakerManager = circuitBreakerManager;
+        this.hedgingManager = hedgingManager;
+        this.retryManager = retryManager;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange) {
+        Api api = exchange.getAttribute(GATEWAY_API_ATTR);
+        if (api == null || api.getApiCluster() == null) {
+            return Mono.error(new SkylineException("not found api cluster from attribute"));
+        }
+        ApiCluster apiCluster = api.getApiCluster();
+        ServerHttpRequest request = exchange.getRequest();
+        LoadBalancer loadBalancer = loadBalancerManager.getLoadBalancer(apiCluster);
+        Endpoint endpoint = loadBalancer.choose();
+        exchange.getAttributes().put(GATEWAY_UPSTREAM_ENDPOINT_ATTR, endpoint);
+        String uri = upstreamUri(endpoint.getHost(), endpoint.getPort(), request);
+        CircuitBreaker circuitBreaker = circuitBreakerManager.getCircuitBreaker(api);
+        Call call = new Call(apiCluster, exchange, filterHeaders(request.getHeaders()), loadBalancer,
+                hedgingManager.getHedge(api, request), retryManager.getRetry(api, apiCluster, request));
+
+        return Mono.defer(() -> {
+            // acquired on subscription, a half open trial permit must not leak
+            if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+                return rejectByCircuitBreaker(exchange, circuitBreaker);
+            }
+            long start = System.nanoTime();
+            Mono<Upstream> upstream;
+            if (call.retry == null) {
+                upstream = attempt(call, endpoint, null);
+            } else {
+                exchange.getAttributes().put(GATEWAY_RETRY_COUNT_ATTR, 0);
+                upstream = replayableBody(request).flatMap(body -> withRetries(call, endpoint, body, 0));
+            }
+            return upstream.flatMap(winner -> writeResponse(exchange, winner))
+                    .doFinally(signal -> {
+                        if (circuitBreaker != null) {
+                            onCircuitBreakerResult(circuitBreaker, exchange, signal, System.nanoTime() - start);
+                        }
+                    });
+        }).onErrorResume(t -> onForwardError(exchange, uri, t));
+    }
+
+    private static void onCircuitBreakerResult(CircuitBreaker circuitBreaker, ServerWebExchange exchange,
+                                               SignalType signal, long durationNanos) {
+        if (signal == SignalType.CANCEL) {
+            circuitBreaker.onCancel();
+            return;
+        }
+        Integer status = exchange.getResponse().getRawStatusCode();
+        boolean failed = signal == SignalType.ON_ERROR || status == null || status >= 500;
+        circuitBreaker.onResult(durationNanos, failed);
+    }
+
+    private Mono<Void> rejectByCircuitBreaker(ServerWebExchange exchange, CircuitBreaker circuitBreaker) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("circuit breaker {} is {}, rejecting {}", circuitBreaker.getName(), circuitBreaker.getState(),
+                    exchange.getRequest().getURI());
+        }
+        HttpMsg rejection = circuitBreakerManager.getRejection();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(rejection.getHttpCode());
+        byte[] bytes = rejection.getMsg().getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    private Mono<Upstream> attempt(Call call, Endpoint endpoint, byte[] body) {
+        return call.hedge == null ? exchangeUpstream(call, endpoint, null, body) : hedged(call, endpoint);
+    }
+
+    /**
+     * Retries an attempt failing to connect or answering with a retried status on another
+     * endpoint, as long as the retries of the request and the budget of the cluster allow.
+     * The response of the last attempt is passed on as it is.
+     */
+    private Mono<Upstream> withRetries(Call call, Endpoint endpoint, byte[] body, int retries) {
+        return attempt(call, endpoint, body).materialize().flatMap(signal -> {
+            Upstream upstream = signal.get();
+            if (upstream != null) {
+                if (call.retry.retries(upstream.response.status().code()) && call.retry.tryRetry(retries)) {
+                    upstream.discard();
+                    return retry(call, upstream.endpoint, body, retries);
+                }
+                return Mono.just(upstream);
+            }
+            Throwable error = signal.getThrowable();
+            if (error == null) {
+                return Mono.empty();
+            }
+            if (isConnectFailure(error) && call.retry.tryRetry(retries)) {
+                return retry(call, endpoint, body, retries);
+            }
+            return Mono.error(error);
+        });
+    }
+
+    private Mono<Upstream> retry(Call call, Endpoint failed, byte[] body, int retries) {
+        Endpoint other = chooseOther(call.loadBalancer, failed);
+        Endpoint endpoint = other == null ? call.loadBalancer.choose() : other;
+        Duration backoff = call.retry.backoff(retries);
+        call.exchange.getAttributes().put(GATEWAY_RETRY_COUNT_ATTR, retries + 1);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("retrying {} on {} after {} ms", call.exchange.getRequest().getURI(), endpoint.getAddress(),
+                    backoff.toMillis());
+        }
+        return Mono.delay(backoff).then(Mono.defer(() -> withRetries(call, endpoint, body, retries + 1)));
+    }
+
+    /**
+     * Buffers the body of the client so it can be sent again, the retry manager only retries
+     * requests without a body or with a body within its byte cap.
+     */
+    private static Mono<byte[]> replayableBody(ServerHttpRequest request) {
+        if (request.getHeaders().getContentLength() <= 0) {
+            return Mono.just(EMPTY_BODY);
+        }
+        return DataBufferUtils.join(request.getBody()).map(dataBuffer -> {
+            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.read(bytes);
+            DataBufferUtils.release(dataBuffer);
+            return bytes;
+        }).defaultIfEmpty(EMPTY_BODY);
+    }
+
+    /**
+     * Races the primary attempt against a hedge sent to another endpoint once the primary
+     * did not answer within the api's latency percentile. The first response wins, the other
+     * attempt is cancelled. Once the hedge was sent the request only fails when both attempts
+     * failed, before that a failing primary fails it at once.
+     */
+    private Mono<Upstream> hedged(Call call, Endpoint endpoint) {
+        hedgingManager.deposit();
+        // hedged requests carry no body, the inbound of the client can not be read twice
+        Mono<Upstream> primary = exchangeUpstream(call, endpoint, call.hedge, EMPTY_BODY);
+        long delayNanos = call.hedge.getDelayNanos();
+        if (delayNanos < 0 || call.loadBalancer.getEndpoints().size() < 2) {
+            return primary;
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        AtomicBoolean hedgeSent = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        Mono<Upstream> hedgeAttempt = Mono.delay(Duration.ofNanos(delayNanos)).flatMap(tick -> {
+            Endpoint other = chooseOther(call.loadBalancer, endpoint);
+            if (other == null || !hedgingManager.withdraw()) {
+                return Mono.never();
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("hedging {} to {} after {} us", call.exchange.getRequest().getURI(), other.getAddress(),
+                        delayNanos / 1000);
+            }
+            hedgeSent.set(true);
+            return claim(exchangeUpstream(call, other, call.hedge, EMPTY_BODY), claimed)
+                    .onErrorResume(t -> failures.incrementAndGet() < 2 ? Mono.never() : Mono.error(t));
+        });
+        Mono<Upstream> primaryAttempt = claim(primary, claimed)
+                .onErrorResume(t -> hedgeSent.get() && failures.incrementAndGet() < 2 ? Mono.never() : Mono.error(t));
+        return Mono.firstWithSignal(primaryAttempt, hedgeAttempt);
+    }
+
+    private static Endpoint chooseOther(LoadBalancer loadBalancer, Endpoint endpoint) {
+        for (int i = 0; i < 3; i++) {
+            Endpoint other = loadBalancer.choose();
+            if (other != endpoint && other.isAvailable()) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lets only the first attempt with response headers through, an attempt answering in the
+     * same instant is discarded instead of racing for the response.
+     */
+    private static Mono<Upstream> claim(Mono<Upstream> attempt, AtomicBoolean claimed) {
+        return attempt.flatMap(upstream -> {
+            if (claimed.compareAndSet(false, true)) {
+                return Mono.just(upstream);
+            }
+            upstream.discard();
+            return Mono.never();
+        });
+    }
+
+    /**
+     * Sends the request and emits once the response headers arrived, the response body is
+     * left on the connection. The endpoint stays acquired until the body was written.
+     *
+     * @param body the request body to send, null to stream the body of the client
+     */
+    private Mono<Upstream> exchangeUpstream(Call call, Endpoint endpoint, HedgingManager.ApiHedge hedge, byte[] body) {
+        ServerHttpRequest request = call.exchange.getRequest();
+        return Mono.defer(() -> {
+            endpoint.acquire();
+            long start = System.nanoTime();
+            return httpClientManager.getHttpClient(call.apiCluster)
+                    .headers(headers -> call.requestHeaders.forEach(headers::set))
+                    .request(HttpMethod.valueOf(request.getMethodValue()))
+                    .uri(upstreamUri(endpoint.getHost(), endpoint.getPort(), request))
+                    .send((req, outbound) -> body == null
+                            ? outbound.send(request.getBody().map(ForwardingHandler::toByteBuf))
+                            : outbound.send(body.length == 0 ? Mono.empty() : Mono.just(Unpooled.wrappedBuffer(body))))
+                    .responseConnection((res, connection) -> {
+                        long latency = System.nanoTime() - start;
+                        endpoint.observe(latency);
+                        if (hedge != null) {
+                            hedge.record(latency);
+                        }
+                        if (res.status().code() >= 500) {
+                            healthChecker.onFailure(endpoint);
+                        } else {
+                            healthChecker.onSuccess(endpoint);
+                        }
+                        return Mono.just(new Upstream(endpoint, res, connection));
+                    })
+                    .singleOrEmpty()
+                    .doOnSuccess(upstream -> {
+                        if (upstream == null) {
+                            endpoint.release();
+                        }
+                    })
+                    .doOnError(t -> {
+                        if (isConnectFailure(t)) {
+                            healthChecker.onFailure(endpoint);
+                        }
+                        endpoint.release();
+                    })
+                    .doOnCancel(endpoint::release);
+        });
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, Upstream upstream) {
+        exchange.getAttributes().put(GATEWAY_UPSTREAM_ENDPOINT_ATTR, upstream.endpoint);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(upstream.response.status().code());
+        copyResponseHeaders(upstream.response, response.getHeaders());
+        NettyDataBufferFactory bufferFactory = nettyBufferFactory(response.bufferFactory(), upstream.connection);
+        return response.writeWith(upstream.connection.inbound().receive().retain().map(bufferFactory::wrap))
+                .doFinally(signal -> upstream.endpoint.release());
+    }
+
+    private Mono<Void> onForwardError(ServerWebExchange exchange, String uri, Throwable t) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(t);
+        }
+        LOG.warn("forward to {} failure, {}", uri, t.toString());
+        if (t instanceof ReadTimeoutException || t instanceof TimeoutException) {
+            response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        } else if (isConnectFailure(t)) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        } else {
+            response.setStatusCode(HttpStatus.BAD_GATEWAY);
+        }
+        return response.setComplete();
+    }
+
+    private static boolean isConnectFailure(Throwable t) {
+        return t instanceof ConnectException || t.getCause() instanceof ConnectException;
+    }
+
+    private static String upstreamUri(String domain, int port, ServerHttpRequest request) {
+        StringBuilder uri = new StringBuilder(64).append("http://").append(domain);
+        if (port > 0) {
+            uri.append(':').append(port);
+        }
+        String rawPath = request.getURI().getRawPath();
+        uri.append(rawPath == null || rawPath.isEmpty() ? "/" : rawPath);
+        String rawQuery = request.getURI().getRawQuery();
+        if (rawQuery != null) {
+            uri.append('?').append(rawQuery);
+        }
+        return uri.toString();
+    }
+
+    private static HttpHeaders filterHeaders(HttpHeaders source) {
+        Set<String> connectionTokens = connectionTokens(source.getConnection());
+        HttpHeaders filtered = new HttpHeaders();
+        for (Map.Entry<String, List<String>> header : source.entrySet()) {
+            String name = header.getKey().toLowerCase();
+            if (!HOP_BY_HOP_HEADERS.contains(name) && !connectionTokens.contains(name)) {
+                filtered.put(header.getKey(), header.getValue());
+            }
+        }
+        return filtered;
+    }
+
+    private static void copyResponseHeaders(HttpClientResponse source, HttpHeaders target) {
+        Set<String> connectionTokens = connectionTokens(source.responseHeaders().getAll("Connection"));
+        for (Map.Entry<String, String> header : source.responseHeaders()) {
+            String name = header.getKey().toLowerCase();
+            if (!HOP_BY_HOP_HEADERS.contains(name) && !connectionTokens.contains(name)) {
+                target.add(header.getKey(), header.getValue());
+            }
+        }
+    }
+
+    private static Set<String> connectionTokens(List<String> connection) {
+        if (connection == null || connection.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> tokens = new HashSet<>();
+        for (String value : connection) {
+            for (String token : value.split(",")) {
+                tokens.add(token.trim().toLowerCase());
+            }
+        }
+        return tokens;
+    }
+
+    private static NettyDataBufferFactory nettyBufferFactory(DataBufferFactory factory, Connection connection) {
+        if (factory instanceof NettyDataBufferFactory) {
+            return (NettyDataBufferFactory) factory;
+        }
+        return new NettyDataBufferFactory(connection.outbound().alloc());
+    }
+
+    private static ByteBuf toByteBuf(DataBuffer dataBuffer) {
+        if (dataBuffer instanceof NettyDataBuffer) {
+            return ((NettyDataBuffer) dataBuffer).getNativeBuffer();
+        }
+        return Unpooled.wrappedBuffer(dataBuffer.asByteBuffer());
+    }
+
+    /**
+     * What every attempt of one request shares.
+     */
+    private static class Call {
+
+        private final ApiCluster apiCluster;
+
+        private final ServerWebExchange exchange;
+
+        private final HttpHeaders requestHeaders;
+
+        private final LoadBalancer loadBalancer;
+
+        private final HedgingManager.ApiHedge hedge;
+
+        private final RetryManager.ClusterRetry retry;
+
+        private Call(ApiCluster apiCluster, ServerWebExchange exchange, HttpHeaders requestHeaders,
+                     LoadBalancer loadBalancer, HedgingManager.ApiHedge hedge, RetryManager.ClusterRetry retry) {
+            this.apiCluster = apiCluster;
+            this.exchange = exchange;
+            this.requestHeaders = requestHeaders;
+            this.loadBalancer = loadBalancer;
+            this.hedge = hedge;
+            this.retry = retry;
+        }
+    }
+
+    /**
+     * An upstream which answered with its response headers, its body is still to be read.
+     */
+    private static class Upstream {
+
+        private final Endpoint endpoint;
+
+        private final HttpClientResponse response;
+
+        private final Connection connection;
+
+        private Upstream(Endpoint endpoint, HttpClientResponse response, Connection connection) {
+            this.endpoint = endpoint;
+            this.response = response;
+            this.connection = connection;
+        }
+
+        private void discard() {
+            connection.dispose();
+            endpoint.release();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.engine.support.CoarseClock;
+import org.apache.skyline.model.Api;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which requests are hedged and how long they wait before the hedge goes out.
+ * <p>
+ * Hedging is enabled per api through {@link Api#getMetadata()}:
+ * <ul>
+ *     <li>{@value #HEDGE_ENABLED}: true to hedge the GET and HEAD requests without body</li>
+ *     <li>{@value #HEDGE_PERCENTILE}: latency percentile the hedge waits for, 95 by default</li>
+ *     <li>{@value #HEDGE_MIN_DELAY}: lower bound of the wait in millis, 1 by default</li>
+ * </ul>
+ * The wait is the percentile of a live histogram of the api's upstream response times,
+ * nothing is hedged until the histogram holds the minimum samples. Every hedge draws on a
+ * global budget refilled by a percentage of the hedgeable requests, so hedging never adds
+ * more than that percentage of load. The histograms of apis gone from the published snapshot
+ * are dropped.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 22:55
+ */
+public class HedgingManager implements ApplicationListener<RefreshApiResultEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingManager.class);
+
+    public static final String HEDGE_ENABLED = "hedge.enabled";
+
+    public static final String HEDGE_PERCENTILE = "hedge.percentile";
+
+    public static final String HEDGE_MIN_DELAY = "hedge.minDelay";
+
+    /**
+     * hedges which may be saved up, a burst of slow responses can not drain more.
+     */
+    private static final int MAX_BUDGET = 10;
+
+    private static final long RECOMPUTE_MILLIS = 1000;
+
+    private final SkylineProperties.Hedging config;
+
+    private final TokenBucket budget;
+
+    private final Map<String, ApiHedge> hedges = new ConcurrentHashMap<>();
+
+    public HedgingManager(SkylineProperties skylineProperties) {
+        this.config = skylineProperties.getUpstream().getHedging();
+        this.budget = new TokenBucket(config.getBudgetPercent(), MAX_BUDGET, 0);
+    }
+
+    /**
+     * @return the hedge settings of the api, null when the request is not hedged
+     */
+    public ApiHedge getHedge(Api api, ServerHttpRequest request) {
+        if (!isHedgeable(request)) {
+            return null;
+        }
+        ApiHedge hedge = hedges.get(api.getIdentification());
+        if (hedge == null || hedge.api != api) {
+            // first request or the api was rebuilt, the histogram carries over
+            hedge = hedges.compute(api.getIdentification(), (identification, old) ->
+                    old != null && old.api == api ? old : new ApiHedge(api, old, config));
+        }
+        return hedge.enabled ? hedge : null;
+    }
+
+    /**
+     * Credits the budget with the share of one hedgeable request.
+     */
+    public void deposit() {
+        budget.deposit();
+    }
+
+    /**
+     * @return whether the budget allowed one more hedge
+     */
+    public boolean withdraw() {
+        return budget.withdraw();
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshApiResultEvent event) {
+        ApiSnapshot snapshot = event.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        for (Api api : snapshot.getApis()) {
+            live.add(api.getIdentification());
+        }
+        hedges.keySet().retainAll(live);
+    }
+
+    private static boolean isHedgeable(ServerHttpRequest request) {
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return false;
+        }
+        // a streamed body can only be sent once
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() <= 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private static String metadata(Api api, String key) {
+        Object value = api.getMetadata() == null ? null : api.getMetadata().get(key);
+        return value == null ? null : value.toString().trim();
+    }
+
+    private static double metadata(Api api, String key, double defaultValue) {
+        String value = metadata(api, key);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("api {} has an invalid {} [{}], using {}.", api.getIdentification(), key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static final class ApiHedge {
+
+        private final Api api;
+
+        private final boolean enabled;
+
+        private final double quantile;
+
+        private final long minDelayNanos;
+
+        private final long minSamples;
+
+        private final LatencyHistogram histogram;
+
+        private final AtomicLong computedAt = new AtomicLong();
+
+        private volatile long delayNanos = -1;
+
+        private ApiHedge(Api api, ApiHedge previous, SkylineProperties.Hedging config) {
+            this.api = api;
+            this.enabled = Boolean.parseBoolean(metadata(api, HEDGE_ENABLED));
+            this.quantile = Math.min(100, Math.max(0, metadata(api, HEDGE_PERCENTILE, 95))) / 100;
+            this.minDelayNanos = (long) (metadata(api, HEDGE_MIN_DELAY, 1) * 1_000_000);
+            this.minSamples = config.getMinSamples();
+            this.histogram = previous != null ? previous.histogram : new LatencyHistogram(config.getWindow().toMillis());
+        }
+
+        public void record(long latencyNanos) {
+            histogram.record(latencyNanos);
+        }
+
+        /**
+         * @return how long the request waits before it is hedged, -1 while the histogram is too thin
+         */
+        public long getDelayNanos() {
+            long now = CoarseClock.currentTimeMillis();
+            long at = computedAt.get();
+            if (now - at >= RECOMPUTE_MILLIS && computedAt.compareAndSet(at, now)) {
+                long percentile = histogram.quantile(quantile, minSamples);
+                delayNanos = percentile < 0 ? -1 : Math.max(percentile, minDelayNanos);
+            }
+            return delayNanos;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import io.netty.channel.ChannelOption;
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.model.ApiCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one pooled keep-alive {@link HttpClient} per api cluster, so clusters never compete
+ * for the connections of each other. The pool of a cluster no published api refers to any
+ * more is disposed gracefully, connections still in use are closed once released.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 14:05
+ */
+public class HttpClientManager implements ApplicationListener<RefreshApiResultEvent>, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientManager.class);
+
+    private final SkylineProperties.Upstream upstream;
+
+    private final Map<Integer, ClusterClient> clients = new ConcurrentHashMap<>();
+
+    public HttpClientManager(SkylineProperties skylineProperties) {
+        this.upstream = skylineProperties.getUpstream();
+    }
+
+    public HttpClient getHttpClient(ApiCluster apiCluster) {
+        return clients.computeIfAbsent(apiCluster.getId(), id -> createClient(apiCluster)).httpClient;
+    }
+
+    private ClusterClient createClient(ApiCluster apiCluster) {
+        LOG.info("creating connection pool for api cluster {}.", apiCluster.getId());
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("skyline-cluster-" + apiCluster.getId())
+                .maxConnections(upstream.getMaxConnections())
+                .pendingAcquireMaxCount(upstream.getPendingAcquireMaxCount());
+        if (upstream.getPendingAcquireTimeout() != null) {
+            builder.pendingAcquireTimeout(upstream.getPendingAcquireTimeout());
+        }
+        if (upstream.getMaxIdleTime() != null) {
+            builder.maxIdleTime(upstream.getMaxIdleTime());
+        }
+        ConnectionProvider provider = builder.build();
+        HttpClient httpClient = HttpClient.create(provider).keepAlive(true);
+        if (upstream.getConnectTimeout() != null) {
+            httpClient = httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                    (int) upstream.getConnectTimeout().toMillis());
+        }
+        if (upstream.getResponseTimeout() != null) {
+            httpClient = httpClient.responseTimeout(upstream.getResponseTimeout());
+        }
+        return new ClusterClient(httpClient, provider);
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshApiResultEvent event) {
+        ApiSnapshot snapshot = event.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        Set<Integer> live = snapshot.getApiClusterIds();
+        clients.entrySet().removeIf(entry -> {
+            if (live.contains(entry.getKey())) {
+                return false;
+            }
+            LOG.info("api cluster {} is gone, disposing its connection pool.", entry.getKey());
+            entry.getValue().provider.disposeLater().subscribe();
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> client.provider.dispose());
+        clients.clear();
+    }
+
+    private static class ClusterClient {
+
+        private final HttpClient httpClient;
+
+        private final ConnectionProvider provider;
+
+        private ClusterClient(HttpClient httpClient, ConnectionProvider provider) {
+            this.httpClient = httpClient;
+            this.provider = provider;
+        }
+    }
+}
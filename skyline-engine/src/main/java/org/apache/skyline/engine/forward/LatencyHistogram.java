@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import org.apache.skyline.engine.support.CoarseClock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Live latency histogram with log-linear buckets, eight per power of two from 1 microsecond
+ * up to about a minute, so a quantile is off by at most 12.5%.
+ * <p>
+ * Samples go to one of two generations, each covering one window. Recording into a new
+ * window clears the generation of the window before the last one, quantiles are computed
+ * over both generations: the last one to two windows of traffic.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 22:40
+ */
+class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int MIN_EXPONENT = 10;
+
+    private static final int MAX_EXPONENT = 35;
+
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final long windowMillis;
+
+    private final AtomicReferenceArray<AtomicLongArray> generations = new AtomicReferenceArray<>(
+            new AtomicLongArray[]{new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS)});
+
+    private final AtomicLong window = new AtomicLong();
+
+    LatencyHistogram(long windowMillis) {
+        this.windowMillis = Math.max(1, windowMillis);
+        this.window.set(CoarseClock.currentTimeMillis() / this.windowMillis);
+    }
+
+    void record(long nanos) {
+        long current = CoarseClock.currentTimeMillis() / windowMillis;
+        long last = window.get();
+        if (current != last && window.compareAndSet(last, current)) {
+            generations.set((int) (current & 1), new AtomicLongArray(BUCKETS));
+            if (current - last > 1) {
+                // no sample for a whole window, the other generation is stale as well
+                generations.set((int) ((current + 1) & 1), new AtomicLongArray(BUCKETS));
+            }
+        }
+        generations.get((int) (current & 1)).incrementAndGet(index(nanos));
+    }
+
+    /**
+     * @return the upper bound of the bucket holding the quantile in nanos, -1 with fewer samples than required
+     */
+    long quantile(double quantile, long minSamples) {
+        AtomicLongArray first = generations.get(0);
+        AtomicLongArray second = generations.get(1);
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = first.get(i) + second.get(i);
+            total += counts[i];
+        }
+        if (total == 0 || total < minSamples) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private static int index(long nanos) {
+        if (nanos < 1L << MIN_EXPONENT) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        int exponent = index / SUB_BUCKETS + MIN_EXPONENT;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS);
+    }
+}
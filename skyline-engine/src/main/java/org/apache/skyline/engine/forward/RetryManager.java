@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.model.ApiCluster;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which upstream requests may be retried and paces the retries.
+ * <p>
+ * Connect failures and the configured statuses are retried for idempotent methods, an api
+ * retries the other methods as well with {@value #RETRY_NON_IDEMPOTENT} true in its metadata
+ * and opts out with {@value #RETRY_ENABLED} false. A request body is buffered to be sent
+ * again only when its declared length is within the byte cap, bodies of unknown or larger
+ * length are streamed once and never retried.
+ * <p>
+ * Retries back off exponentially with full jitter and draw on a token budget per api cluster,
+ * so a failing cluster can not be hit by more than a fixed share of extra requests. The budgets
+ * of clusters gone from the published snapshot are dropped.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 23:30
+ */
+public class RetryManager implements ApplicationListener<RefreshApiResultEvent> {
+
+    public static final String RETRY_ENABLED = "retry.enabled";
+
+    public static final String RETRY_NON_IDEMPOTENT = "retry.nonIdempotent";
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD,
+            HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+
+    /**
+     * retries a cluster may save up, they are available from the start.
+     */
+    private static final int MAX_BUDGET = 10;
+
+    private final SkylineProperties.Retry config;
+
+    private final boolean[] statuses = new boolean[600];
+
+    private final Map<Integer, ClusterRetry> clusters = new ConcurrentHashMap<>();
+
+    public RetryManager(SkylineProperties skylineProperties) {
+        this.config = skylineProperties.getUpstream().getRetry();
+        if (config.getStatuses() != null) {
+            for (Integer status : config.getStatuses()) {
+                if (status != null && status >= 0 && status < statuses.length) {
+                    statuses[status] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the retries of the cluster of the api, null when the request is not retried
+     */
+    public ClusterRetry getRetry(Api api, ApiCluster apiCluster, ServerHttpRequest request) {
+        if (!config.isEnabled() || config.getMaxRetries() <= 0 || "false".equals(metadata(api, RETRY_ENABLED))) {
+            return null;
+        }
+        if (!IDEMPOTENT_METHODS.contains(request.getMethod()) && !"true".equals(metadata(api, RETRY_NON_IDEMPOTENT))) {
+            return null;
+        }
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey(HttpHeaders.TRANSFER_ENCODING) || headers.getContentLength() > config.getMaxBodyBytes()) {
+            return null;
+        }
+        ClusterRetry retry = clusters.get(apiCluster.getId());
+        if (retry == null) {
+            retry = clusters.computeIfAbsent(apiCluster.getId(), id -> new ClusterRetry());
+        }
+        retry.budget.deposit();
+        return retry;
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshApiResultEvent event) {
+        ApiSnapshot snapshot = event.getSnapshot();
+        if (snapshot != null) {
+            clusters.keySet().retainAll(snapshot.getApiClusterIds());
+        }
+    }
+
+    private static String metadata(Api api, String key) {
+        Object value = api.getMetadata() == null ? null : api.getMetadata().get(key);
+        return value == null ? null : value.toString().trim();
+    }
+
+    public final class ClusterRetry {
+
+        private final TokenBucket budget = new TokenBucket(config.getBudgetPercent(), MAX_BUDGET, MAX_BUDGET);
+
+        private ClusterRetry() {
+        }
+
+        public boolean retries(int status) {
+            return status >= 0 && status < statuses.length && statuses[status];
+        }
+
+        /**
+         * @param retries retries done so far
+         * @return whether one more retry is allowed, taking it from the budget
+         */
+        public boolean tryRetry(int retries) {
+            return retries < config.getMaxRetries() && budget.withdraw();
+        }
+
+        /**
+         * Full jitter: a random backoff below the exponentially growing cap.
+         */
+        public Duration backoff(int retries) {
+            long first = config.getFirstBackoff().toNanos();
+            long max = config.getMaxBackoff().toNanos();
+            long cap = retries >= 30 ? max : Math.min(max, first << retries);
+            return cap <= 0 ? Duration.ZERO : Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.forward;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free budget of extra upstream calls: every call deposits a percentage of a token,
+ * every extra call withdraws a whole one, so extra calls stay under that percentage of the
+ * calls. The bucket holds a few tokens at most, saved up tokens can not feed a storm.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 23:20
+ */
+final class TokenBucket {
+
+    /**
+     * the bucket counts thousandths of a token.
+     */
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+
+    private final long capacity;
+
+    private final AtomicLong balance;
+
+    TokenBucket(double percent, int maxTokens, int initialTokens) {
+        this.deposit = Math.max(0, Math.round(percent * TOKEN / 100));
+        this.capacity = maxTokens * TOKEN;
+        this.balance = new AtomicLong(Math.min(maxTokens, initialTokens) * TOKEN);
+    }
+
+    void deposit() {
+        // a full bucket is only read, the hot path does not contend on the cas
+        if (balance.get() < capacity) {
+            balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+        }
+    }
+
+    boolean withdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
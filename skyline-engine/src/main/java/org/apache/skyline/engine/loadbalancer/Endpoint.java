@@ -0,0 +1,212 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An upstream address with the live stats the load balancers feed on. The stats are kept
+ * across refreshes as long as the address stays in the cluster.
+ * <p>
+ * The health state is kept here as well: the verdict of the active probes and the ejection
+ * of the passive outlier detection, an endpoint is only selected while both let it.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:10
+ */
+public class Endpoint {
+
+    @Getter
+    private final String host;
+
+    @Getter
+    private final int port;
+
+    @Getter
+    private final int weight;
+
+    private final long decayNanos;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    /**
+     * peak ewma latency in nanos, stored as double bits.
+     */
+    private final AtomicLong ewma = new AtomicLong(Double.doubleToRawLongBits(0D));
+
+    private volatile long stamp = System.nanoTime();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * set by {@link #eject}, cleared only by {@link #readmit()} once the cool-down passed.
+     */
+    private final AtomicBoolean ejected = new AtomicBoolean();
+
+    /**
+     * nano time of the last readmission.
+     */
+    private volatile long readmittedAt;
+
+    private final AtomicInteger ejections = new AtomicInteger();
+
+    private volatile boolean healthy = true;
+
+    /**
+     * consecutive probe results, positive for passed probes and negative for failed ones.
+     */
+    private final AtomicInteger probeStreak = new AtomicInteger();
+
+    public Endpoint(String host, int port, int weight, long decayNanos) {
+        this.host = host;
+        this.port = port;
+        this.weight = Math.max(1, weight);
+        this.decayNanos = decayNanos;
+    }
+
+    public String getAddress() {
+        return host + ":" + port;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Marks a request sent to this endpoint, must be paired with {@link #release()}.
+     */
+    public void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    public void release() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Feeds a latency sample, a sample above the current value replaces it at once so
+     * a slowing endpoint is penalized before the average catches up.
+     */
+    public void observe(long latencyNanos) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(0, now - stamp);
+        stamp = now;
+        double weight = Math.exp(-(double) elapsed / decayNanos);
+        long prevBits;
+        double next;
+        do {
+            prevBits = ewma.get();
+            double prev = Double.longBitsToDouble(prevBits);
+            next = latencyNanos > prev ? latencyNanos : prev * weight + latencyNanos * (1 - weight);
+        } while (!ewma.compareAndSet(prevBits, Double.doubleToRawLongBits(next)));
+    }
+
+    /**
+     * Ewma decayed to now multiplied by the outstanding requests, lower is better.
+     */
+    public double cost() {
+        double latency = Double.longBitsToDouble(ewma.get());
+        long elapsed = Math.max(0, System.nanoTime() - stamp);
+        latency = latency * Math.exp(-(double) elapsed / decayNanos);
+        int pending = outstanding.get();
+        if (latency == 0D && pending != 0) {
+            // no sample yet, rank by the outstanding requests alone
+            return pending;
+        }
+        return latency * (pending + 1);
+    }
+
+    /**
+     * Whether the endpoint may be selected, neither failing its probes nor ejected.
+     */
+    public boolean isAvailable() {
+        return healthy && !ejected.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isEjected() {
+        return ejected.get();
+    }
+
+    public void recordSuccess() {
+        // most responses succeed, skip the write while there is nothing to reset
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * @return the failures in a row including this one
+     */
+    public int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * Takes the endpoint out for a cool-down doubling with every ejection, an endpoint which
+     * stayed in for the max ejection time starts over at the base cool-down. The endpoint
+     * stays out until {@link #readmit()}, the caller schedules it after the cool-down.
+     *
+     * @return the cool-down in millis, 0 when the endpoint is already ejected
+     */
+    public long eject(long baseMillis, long maxMillis) {
+        if (!ejected.compareAndSet(false, true)) {
+            return 0;
+        }
+        int times = ejections.get();
+        if (times > 0 && System.nanoTime() - readmittedAt >= TimeUnit.MILLISECONDS.toNanos(maxMillis)) {
+            times = 0;
+        }
+        long coolDown = Math.min(maxMillis, baseMillis << Math.min(times, 20));
+        ejections.set(times + 1);
+        consecutiveFailures.set(0);
+        return coolDown;
+    }
+
+    /**
+     * Ends the ejection.
+     */
+    public void readmit() {
+        readmittedAt = System.nanoTime();
+        ejected.set(false);
+    }
+
+    /**
+     * Feeds a probe result.
+     *
+     * @return true when the result flipped the health of the endpoint
+     */
+    public boolean recordProbe(boolean passed, int healthyThreshold, int unhealthyThreshold) {
+        int streak = probeStreak.updateAndGet(prev -> passed ? Math.max(prev, 0) + 1 : Math.min(prev, 0) - 1);
+        if (healthy && streak <= -unhealthyThreshold) {
+            healthy = false;
+            return true;
+        }
+        if (!healthy && streak >= healthyThreshold) {
+            healthy = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import io.netty.channel.ChannelOption;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health awareness of the upstream endpoints.
+ * <p>
+ * Active: every endpoint balanced so far is probed with an http GET on a shared scheduler,
+ * an endpoint failing {@code unhealthyThreshold} probes in a row leaves the selection until
+ * it passes {@code healthyThreshold} probes in a row.
+ * <p>
+ * Passive: the forwarding reports every upstream exchange, {@code consecutiveFailures} 5xx
+ * responses or connect failures in a row eject the endpoint for a cool-down doubling with
+ * every ejection up to {@code maxEjectionTime}.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 21:10
+ */
+public class HealthChecker implements InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HealthChecker.class);
+
+    private final SkylineProperties.HealthCheck healthCheck;
+
+    private final SkylineProperties.OutlierDetection outlierDetection;
+
+    private final LoadBalancerManager loadBalancerManager;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "skyline-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * endpoints with a probe in flight, a slow endpoint never piles up probes.
+     */
+    private final Set<Endpoint> probing = ConcurrentHashMap.newKeySet();
+
+    private ConnectionProvider probeProvider;
+
+    private HttpClient probeClient;
+
+    public HealthChecker(SkylineProperties skylineProperties, LoadBalancerManager loadBalancerManager) {
+        this.healthCheck = skylineProperties.getUpstream().getHealthCheck();
+        this.outlierDetection = skylineProperties.getUpstream().getOutlierDetection();
+        this.loadBalancerManager = loadBalancerManager;
+    }
+
+    /**
+     * Reports an upstream response below 500.
+     */
+    public void onSuccess(Endpoint endpoint) {
+        endpoint.recordSuccess();
+    }
+
+    /**
+     * Reports a 5xx response or a connect failure of the endpoint.
+     */
+    public void onFailure(Endpoint endpoint) {
+        if (!outlierDetection.isEnabled() || endpoint.recordFailure() < outlierDetection.getConsecutiveFailures()) {
+            return;
+        }
+        long coolDown = endpoint.eject(outlierDetection.getBaseEjectionTime().toMillis(),
+                outlierDetection.getMaxEjectionTime().toMillis());
+        if (coolDown == 0) {
+            return;
+        }
+        LOG.warn("ejecting endpoint {} for {} ms after {} consecutive failures.", endpoint.getAddress(), coolDown,
+                outlierDetection.getConsecutiveFailures());
+        loadBalancerManager.reselect(endpoint);
+        scheduler.schedule(() -> {
+            LOG.info("endpoint {} back from ejection.", endpoint.getAddress());
+            endpoint.readmit();
+            loadBalancerManager.reselect(endpoint);
+        }, coolDown, TimeUnit.MILLISECONDS);
+    }
+
+    private void probeAll() {
+        try {
+            for (Endpoint endpoint : loadBalancerManager.getEndpoints()) {
+                if (probing.add(endpoint)) {
+                    probe(endpoint);
+                }
+            }
+        } catch (Throwable e) {
+            // an exception would cancel the periodic task
+            LOG.error("health check round failure", e);
+        }
+    }
+
+    private void probe(Endpoint endpoint) {
+        String uri = "http://" + endpoint.getAddress() + healthCheck.getPath();
+        probeClient.get().uri(uri)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .timeout(healthCheck.getTimeout())
+                .map(status -> status >= 200 && status < 400)
+                .onErrorResume(t -> {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("probe of {} failure, {}", uri, t.toString());
+                    }
+                    return Mono.just(false);
+                })
+                .doFinally(signal -> probing.remove(endpoint))
+                .subscribe(passed -> onProbe(endpoint, passed));
+    }
+
+    private void onProbe(Endpoint endpoint, boolean passed) {
+        if (endpoint.recordProbe(passed, healthCheck.getHealthyThreshold(), healthCheck.getUnhealthyThreshold())) {
+            LOG.warn("endpoint {} turned {} by health check.", endpoint.getAddress(), passed ? "healthy" : "unhealthy");
+            loadBalancerManager.reselect(endpoint);
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!healthCheck.isEnabled()) {
+            return;
+        }
+        // probes never reuse connections, a probe has to prove the endpoint accepts new ones
+        probeProvider = ConnectionProvider.newConnection();
+        probeClient = HttpClient.create(probeProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) healthCheck.getTimeout().toMillis());
+        long interval = healthCheck.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::probeAll, interval, interval, TimeUnit.MILLISECONDS);
+        LOG.info("health checking upstream endpoints on {} every {} ms.", healthCheck.getPath(), interval);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        if (probeProvider != null) {
+            probeProvider.dispose();
+        }
+    }
+}
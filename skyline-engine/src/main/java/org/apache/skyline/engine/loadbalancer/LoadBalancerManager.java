@@ -0,0 +1,227 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import org.apache.skyline.commons.exception.SkylineException;
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.model.ApiCluster;
+import org.apache.skyline.model.ApiInstance;
+import org.apache.skyline.model.enums.LoadBalancerType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the load balancer of every api cluster. Apis of one cluster may carry distinct but
+ * equal cluster objects, those share the balancer. A balancer is only rebuilt when the
+ * instances or the strategy change, endpoints whose address and weight did not change are
+ * carried over with their stats.
+ * <p>
+ * A balancer only selects among the available endpoints, the selection is rebuilt when an
+ * endpoint is ejected or comes back. With every endpoint out the whole cluster is selected
+ * again, failing open beats refusing all traffic of the cluster.
+ * <p>
+ * The balancers of clusters no longer backing any published api are dropped, so their
+ * endpoints are no longer probed.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:24
+ */
+public class LoadBalancerManager implements ApplicationListener<RefreshApiResultEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadBalancerManager.class);
+
+    private final SkylineProperties.Upstream upstream;
+
+    private final Map<Integer, ClusterBalancer> balancers = new ConcurrentHashMap<>();
+
+    /**
+     * cluster objects already resolved, ApiCluster keeps identity equality.
+     */
+    private final Map<ApiCluster, LoadBalancer> resolved = new ConcurrentHashMap<>();
+
+    public LoadBalancerManager(SkylineProperties skylineProperties) {
+        this.upstream = skylineProperties.getUpstream();
+    }
+
+    public LoadBalancer getLoadBalancer(ApiCluster apiCluster) {
+        LoadBalancer loadBalancer = resolved.get(apiCluster);
+        if (loadBalancer != null) {
+            return loadBalancer;
+        }
+        String signature = signature(apiCluster);
+        loadBalancer = balancers.compute(apiCluster.getId(), (id, old) ->
+                old != null && old.signature.equals(signature) ? old : create(apiCluster, signature, old));
+        resolved.put(apiCluster, loadBalancer);
+        return loadBalancer;
+    }
+
+    /**
+     * @return the endpoints of all clusters balanced so far
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> endpoints = new ArrayList<>();
+        balancers.values().forEach(balancer -> endpoints.addAll(balancer.endpoints));
+        return endpoints;
+    }
+
+    /**
+     * Rebuilds the selection of the clusters holding the endpoint after its availability changed.
+     */
+    public void reselect(Endpoint endpoint) {
+        for (ClusterBalancer balancer : balancers.values()) {
+            if (balancer.endpoints.contains(endpoint)) {
+                balancer.reselect();
+            }
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshApiResultEvent event) {
+        // drop the cluster objects of replaced apis, live ones are resolved again lazily
+        resolved.clear();
+        ApiSnapshot snapshot = event.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        Set<Integer> live = snapshot.getApiClusterIds();
+        balancers.keySet().removeIf(id -> {
+            if (live.contains(id)) {
+                return false;
+            }
+            LOG.info("api cluster {} is gone, dropping its load balancer.", id);
+            return true;
+        });
+    }
+
+    private ClusterBalancer create(ApiCluster apiCluster, String signature, ClusterBalancer old) {
+        Map<String, Endpoint> reusable = new HashMap<>();
+        if (old != null) {
+            old.endpoints.forEach(endpoint -> reusable.put(key(endpoint.getAddress(), endpoint.getWeight()), endpoint));
+        }
+        long decayNanos = upstream.getEwmaDecayTime().toNanos();
+        List<Endpoint> endpoints = new ArrayList<>();
+        if (apiCluster.getInstances() == null || apiCluster.getInstances().isEmpty()) {
+            if (apiCluster.getDomain() == null) {
+                throw new SkylineException("api cluster " + apiCluster.getId() + " has neither instances nor domain");
+            }
+            endpoints.add(reuse(reusable, apiCluster.getDomain(), apiCluster.getPort(), 1, decayNanos));
+        } else {
+            for (ApiInstance instance : apiCluster.getInstances()) {
+                int weight = instance.getQuota() == null ? 1 : instance.getQuota().getCpuCore();
+                endpoints.add(reuse(reusable, instance.getHost(), instance.getPort(), weight, decayNanos));
+            }
+        }
+        LoadBalancerType type = apiCluster.getLoadBalancer() == null ? upstream.getLoadBalancer() : apiCluster.getLoadBalancer();
+        LOG.info("load balancing api cluster {} over {} endpoints with {}.", apiCluster.getId(), endpoints.size(), type);
+        return new ClusterBalancer(apiCluster.getId(), signature, type, endpoints);
+    }
+
+    private static LoadBalancer create(LoadBalancerType type, List<Endpoint> endpoints) {
+        switch (type) {
+            case WEIGHTED_ROUND_ROBIN:
+                return new WeightedRoundRobinLoadBalancer(endpoints);
+            case LEAST_REQUEST:
+                return new LeastRequestLoadBalancer(endpoints);
+            case PEAK_EWMA:
+                return new PeakEwmaLoadBalancer(endpoints);
+            case ROUND_ROBIN:
+            default:
+                return new RoundRobinLoadBalancer(endpoints);
+        }
+    }
+
+    private static Endpoint reuse(Map<String, Endpoint> reusable, String host, int port, int weight, long decayNanos) {
+        Endpoint endpoint = reusable.get(key(host + ":" + port, Math.max(1, weight)));
+        return endpoint != null ? endpoint : new Endpoint(host, port, weight, decayNanos);
+    }
+
+    private static String key(String address, int weight) {
+        return address + "#" + weight;
+    }
+
+    private String signature(ApiCluster apiCluster) {
+        StringBuilder signature = new StringBuilder()
+                .append(apiCluster.getLoadBalancer() == null ? upstream.getLoadBalancer() : apiCluster.getLoadBalancer())
+                .append('|').append(apiCluster.getDomain()).append(':').append(apiCluster.getPort());
+        if (apiCluster.getInstances() != null) {
+            for (ApiInstance instance : apiCluster.getInstances()) {
+                signature.append('|').append(instance.getHost()).append(':').append(instance.getPort())
+                        .append('#').append(instance.getQuota());
+            }
+        }
+        return signature.toString();
+    }
+
+    private static class ClusterBalancer implements LoadBalancer {
+
+        private final int clusterId;
+
+        private final String signature;
+
+        private final LoadBalancerType type;
+
+        private final List<Endpoint> endpoints;
+
+        private volatile LoadBalancer selection;
+
+        private ClusterBalancer(int clusterId, String signature, LoadBalancerType type, List<Endpoint> endpoints) {
+            this.clusterId = clusterId;
+            this.signature = signature;
+            this.type = type;
+            this.endpoints = List.copyOf(endpoints);
+            reselect();
+        }
+
+        @Override
+        public Endpoint choose() {
+            return selection.choose();
+        }
+
+        @Override
+        public List<Endpoint> getEndpoints() {
+            return endpoints;
+        }
+
+        /**
+         * off the request path, serialized so a stale availability view never wins.
+         */
+        private synchronized void reselect() {
+            List<Endpoint> available = new ArrayList<>(endpoints.size());
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint.isAvailable()) {
+                    available.add(endpoint);
+                }
+            }
+            if (available.isEmpty()) {
+                LOG.warn("no endpoint of api cluster {} is available, selecting all {} endpoints.", clusterId, endpoints.size());
+                available = endpoints;
+            } else if (available.size() < endpoints.size()) {
+                LOG.info("api cluster {} selecting {} of {} endpoints.", clusterId, available.size(), endpoints.size());
+            }
+            selection = create(type, available);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: two random endpoints are compared on peak ewma latency times
+ * outstanding requests and the cheaper one wins, so slow endpoints drain automatically.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:20
+ */
+public class PeakEwmaLoadBalancer implements LoadBalancer {
+
+    private final Endpoint[] endpoints;
+
+    public PeakEwmaLoadBalancer(List<Endpoint> endpoints) {
+        this.endpoints = endpoints.toArray(new Endpoint[0]);
+    }
+
+    @Override
+    public Endpoint choose() {
+        int length = endpoints.length;
+        if (length == 1) {
+            return endpoints[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = endpoints[first];
+        Endpoint b = endpoints[second];
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    @Override
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+}
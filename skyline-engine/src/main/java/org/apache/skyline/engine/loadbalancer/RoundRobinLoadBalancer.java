@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author lijian
+ * @since time: 2026-10-18 15:14
+ */
+public class RoundRobinLoadBalancer implements LoadBalancer {
+
+    private final Endpoint[] endpoints;
+
+    private final AtomicInteger position = new AtomicInteger();
+
+    public RoundRobinLoadBalancer(List<Endpoint> endpoints) {
+        this.endpoints = endpoints.toArray(new Endpoint[0]);
+    }
+
+    @Override
+    public Endpoint choose() {
+        return endpoints[(position.getAndIncrement() & Integer.MAX_VALUE) % endpoints.length];
+    }
+
+    @Override
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+}
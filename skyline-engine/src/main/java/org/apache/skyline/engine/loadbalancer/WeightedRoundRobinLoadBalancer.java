@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Weighted round robin without locks: the smooth weighted sequence of nginx is unrolled
+ * once into a schedule, choosing is then a plain round robin over the schedule.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:16
+ */
+public class WeightedRoundRobinLoadBalancer implements LoadBalancer {
+
+    private final List<Endpoint> endpoints;
+
+    private final Endpoint[] schedule;
+
+    private final AtomicInteger position = new AtomicInteger();
+
+    public WeightedRoundRobinLoadBalancer(List<Endpoint> endpoints) {
+        this.endpoints = List.copyOf(endpoints);
+        this.schedule = schedule(endpoints);
+    }
+
+    private static Endpoint[] schedule(List<Endpoint> endpoints) {
+        int gcd = 0;
+        for (Endpoint endpoint : endpoints) {
+            gcd = gcd(gcd, endpoint.getWeight());
+        }
+        int[] weights = new int[endpoints.size()];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = endpoints.get(i).getWeight() / gcd;
+            total += weights[i];
+        }
+        Endpoint[] schedule = new Endpoint[total];
+        int[] current = new int[weights.length];
+        for (int n = 0; n < total; n++) {
+            int best = 0;
+            for (int i = 0; i < weights.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            schedule[n] = endpoints.get(best);
+        }
+        return schedule;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    @Override
+    public Endpoint choose() {
+        return schedule[(position.getAndIncrement() & Integer.MAX_VALUE) % schedule.length];
+    }
+
+    @Override
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+}
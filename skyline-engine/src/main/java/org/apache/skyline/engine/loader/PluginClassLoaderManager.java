@@ -0,0 +1,459 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.loader;
+
+import org.apache.skyline.commons.exception.SkylineException;
+import org.apache.skyline.engine.api.route.ApiSnapshot;
+import org.apache.skyline.engine.config.SkylineProperties;
+import org.apache.skyline.engine.event.RefreshApiEvent;
+import org.apache.skyline.engine.event.RefreshApiResultEvent;
+import org.apache.skyline.model.Api;
+import org.apache.skyline.plugin.DefaultPluginChain;
+import org.apache.skyline.engine.support.SkylinePackagePath;
+import org.apache.skyline.plugin.PluginManager;
+import org.apache.skyline.plugin.SkylinePluginWrapper;
+import org.apache.skyline.plugin.api.SkylinePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ApplicationListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps one {@link SkylineClassLoader} per plugin jar of the plugin dir, shared by every api
+ * using the jar. The dir is watched and a changed jar gets a fresh loader: its plugins are
+ * instantiated on the new loader first and put in service, then the apis are rebuilt against
+ * them. Once a published snapshot holds every api of the old instances rebuilt, the old
+ * instances are uninstalled and the old loader closed after a grace period, so requests
+ * still running on them can finish. When the new plugins fail to load, or apis using them
+ * fail to build, the previous version is put back and the jar is not tried again until it
+ * changes. Jars are versioned by checksum, rewriting a jar with the same content does not
+ * reload it.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 17:02
+ */
+public class PluginClassLoaderManager implements ApplicationEventPublisherAware, ApplicationListener<RefreshApiResultEvent>,
+        InitializingBean, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PluginClassLoaderManager.class);
+
+    private final SkylineProperties skylineProperties;
+
+    private final ObjectProvider<PluginManager> pluginManager;
+
+    private final ClassLoader parent;
+
+    private final File pluginDir;
+
+    private final Map<String, JarLoader> loaders = new ConcurrentHashMap<>();
+
+    private final Map<String, ScheduledFuture<?>> pendingReloads = new ConcurrentHashMap<>();
+
+    /**
+     * swapped jars waiting for their apis to be published, guarded by this.
+     */
+    private final Map<String, Swap> pendingSwaps = new HashMap<>();
+
+    /**
+     * checksum of the jar version rolled back per jar, not tried again.
+     */
+    private final Map<String, Long> rejected = new ConcurrentHashMap<>();
+
+    private volatile ApiSnapshot published = ApiSnapshot.EMPTY;
+
+    private final ClassLoader resourceClassLoader;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "skyline-plugin-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ApplicationEventPublisher publisher;
+
+    private WatchService watchService;
+
+    public PluginClassLoaderManager(SkylineProperties skylineProperties, ObjectProvider<PluginManager> pluginManager) {
+        this.skylineProperties = skylineProperties;
+        this.pluginManager = pluginManager;
+        this.parent = PluginClassLoaderManager.class.getClassLoader();
+        this.pluginDir = new File(SkylinePackagePath.getPath(), skylineProperties.getPluginPath());
+        if (!pluginDir.exists() && !pluginDir.mkdirs()) {
+            throw new SkylineException("make plugin dir error");
+        }
+        this.resourceClassLoader = new PluginResourceClassLoader(parent);
+    }
+
+    /**
+     * Returns the current loader of the jar, opening it on first use.
+     */
+    public ClassLoader getClassLoader(String jarName) {
+        return loaders.computeIfAbsent(jarName, this::open).loader;
+    }
+
+    /**
+     * Returns the version of the current loader of the jar, opening it on first use.
+     */
+    public String getVersion(String jarName) {
+        return loaders.computeIfAbsent(jarName, this::open).version();
+    }
+
+    /**
+     * Loader finding resources across all jars of the plugin dir, for plugin discovery.
+     */
+    public ClassLoader getResourceClassLoader() {
+        return resourceClassLoader;
+    }
+
+    private JarLoader open(String jarName) {
+        File jar = new File(pluginDir, jarName);
+        if (!jar.isFile()) {
+            throw new SkylineException("plugin jar " + jarName + " not found in " + pluginDir);
+        }
+        LOG.info("opening class loader of plugin jar {}.", jarName);
+        return new JarLoader(new SkylineClassLoader(parent, jar), checksum(jar));
+    }
+
+    private synchronized void reload(String jarName) {
+        JarLoader old = loaders.get(jarName);
+        if (old == null) {
+            // never used, the jar is picked up lazily
+            return;
+        }
+        if (pendingSwaps.containsKey(jarName)) {
+            // the previous swap of the jar is not settled yet
+            scheduleReload(jarName);
+            return;
+        }
+        File jar = new File(pluginDir, jarName);
+        long checksum = jar.isFile() ? checksum(jar) : -1L;
+        if (checksum == old.checksum || Long.valueOf(checksum).equals(rejected.get(jarName))) {
+            return;
+        }
+        PluginManager plugins = pluginManager.getObject();
+        if (checksum < 0) {
+            LOG.info("plugin jar {} removed.", jarName);
+            loaders.remove(jarName, old);
+            Map<String, SkylinePlugin<?>> retired = plugins.swap(jarName, null, Map.of());
+            publisher.publishEvent(new RefreshApiEvent(this));
+            unloadLater(old, retired);
+            return;
+        }
+        LOG.info("plugin jar {} changed, loading its plugins on a new class loader.", jarName);
+        JarLoader next = new JarLoader(new SkylineClassLoader(parent, jar), checksum);
+        Map<String, SkylinePlugin<?>> staged;
+        try {
+            staged = plugins.stage(jarName, next.version(), next.loader);
+        } catch (Throwable t) {
+            LOG.error("plugin jar " + jarName + " failed to load, keeping the loaded version.", t);
+            rejected.put(jarName, checksum);
+            next.loader.close();
+            return;
+        }
+        Set<String> affected = apisUsing(plugins.getPlugins(), jarName);
+        loaders.put(jarName, next);
+        Map<String, SkylinePlugin<?>> retired = plugins.swap(jarName, next.version(), staged);
+        pendingSwaps.put(jarName, new Swap(jarName, old, next, retired, staged, affected));
+        // apis are rebuilt on the new instances, the result settles the swap
+        publisher.publishEvent(new RefreshApiEvent(this));
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(RefreshApiResultEvent event) {
+        if (event.isSuccess()) {
+            published = event.getSnapshot();
+        }
+        for (Swap swap : new ArrayList<>(pendingSwaps.values())) {
+            Boolean rebuilt = event.isSuccess() ? rebuilt(event.getSnapshot(), swap) : Boolean.FALSE;
+            if (rebuilt == null) {
+                // a refresh started before the swap, wait for the one started by it
+                continue;
+            }
+            pendingSwaps.remove(swap.jarName);
+            if (rebuilt) {
+                LOG.info("plugin jar {} swapped, {} apis rebuilt.", swap.jarName, swap.affected.size());
+                unloadLater(swap.old, swap.retired);
+            } else {
+                rollback(swap);
+            }
+        }
+    }
+
+    /**
+     * @return true when the snapshot holds every affected api on the new instances, false
+     * when one of them is missing, null when it still holds the old instances
+     */
+    private static Boolean rebuilt(ApiSnapshot snapshot, Swap swap) {
+        if (swap.affected.isEmpty()) {
+            return Boolean.TRUE;
+        }
+        Map<String, Api> apis = new HashMap<>();
+        for (Api api : snapshot.getApis()) {
+            apis.put(api.getIdentification(), api);
+        }
+        for (String identification : swap.affected) {
+            Api api = apis.get(identification);
+            if (api == null) {
+                LOG.error("api {} failed to build on the new plugins of jar {}.", identification, swap.jarName);
+                return Boolean.FALSE;
+            }
+            for (SkylinePluginWrapper<?> wrapper : wrappers(api)) {
+                if (swap.retired.containsValue(wrapper.getSkylinePlugin())) {
+                    return null;
+                }
+            }
+        }
+        return Boolean.TRUE;
+    }
+
+    private void rollback(Swap swap) {
+        LOG.error("rolling plugin jar {} back to the loaded version.", swap.jarName);
+        rejected.put(swap.jarName, swap.next.checksum);
+        loaders.put(swap.jarName, swap.old);
+        pluginManager.getObject().swap(swap.jarName, swap.old.version(), swap.retired);
+        publisher.publishEvent(new RefreshApiEvent(this));
+        unloadLater(swap.next, swap.staged);
+    }
+
+    /**
+     * Uninstalls the instances and closes their loader after the grace period.
+     */
+    private void unloadLater(JarLoader loader, Map<String, SkylinePlugin<?>> instances) {
+        scheduler.schedule(() -> {
+            instances.values().forEach(PluginManager::uninstall);
+            loader.loader.close();
+        }, skylineProperties.getPluginUnloadDelay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return identifications of the published apis running plugins of the jar
+     */
+    private Set<String> apisUsing(Map<String, SkylinePlugin<?>> plugins, String jarName) {
+        Set<SkylinePlugin<?>> instances = new HashSet<>();
+        plugins.forEach((key, plugin) -> {
+            if (key.startsWith(jarName + "@")) {
+                instances.add(plugin);
+            }
+        });
+        Set<String> affected = new HashSet<>();
+        for (Api api : published.getApis()) {
+            for (SkylinePluginWrapper<?> wrapper : wrappers(api)) {
+                if (instances.contains(wrapper.getSkylinePlugin())) {
+                    affected.add(api.getIdentification());
+                }
+            }
+        }
+        return affected;
+    }
+
+    private static List<SkylinePluginWrapper<?>> wrappers(Api api) {
+        return api.getPluginChain() instanceof DefaultPluginChain
+                ? ((DefaultPluginChain) api.getPluginChain()).getPluginWrappers() : List.of();
+    }
+
+    private void scheduleReload(String jarName) {
+        long delay = skylineProperties.getPluginReloadDelay().toMillis();
+        // a jar copy fires several events, only reload once it is quiet
+        pendingReloads.compute(jarName, (name, pending) -> {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return scheduler.schedule(() -> {
+                pendingReloads.remove(name);
+                try {
+                    reload(name);
+                } catch (Throwable t) {
+                    LOG.error("reload plugin jar " + name + " failure.", t);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void watch() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    loaders.keySet().forEach(this::scheduleReload);
+                    continue;
+                }
+                String name = ((Path) event.context()).getFileName().toString();
+                if (name.endsWith(".jar")) {
+                    scheduleReload(name);
+                }
+            }
+            if (!key.reset()) {
+                LOG.warn("plugin dir {} is no longer watched.", pluginDir);
+                return;
+            }
+        }
+    }
+
+    private static long checksum(File jar) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(jar.toPath())) {
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new SkylineException(e);
+        }
+        return crc.getValue();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!skylineProperties.isPluginHotReload()) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        pluginDir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread watcher = new Thread(this::watch, "skyline-plugin-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOG.info("watching plugin dir {}.", pluginDir);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        scheduler.shutdownNow();
+        loaders.values().forEach(jarLoader -> jarLoader.loader.close());
+        loaders.clear();
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    private static class Swap {
+
+        private final String jarName;
+
+        private final JarLoader old;
+
+        private final JarLoader next;
+
+        private final Map<String, SkylinePlugin<?>> retired;
+
+        private final Map<String, SkylinePlugin<?>> staged;
+
+        private final Set<String> affected;
+
+        private Swap(String jarName, JarLoader old, JarLoader next, Map<String, SkylinePlugin<?>> retired,
+                     Map<String, SkylinePlugin<?>> staged, Set<String> affected) {
+            this.jarName = jarName;
+            this.old = old;
+            this.next = next;
+            this.retired = retired;
+            this.staged = staged;
+            this.affected = affected;
+        }
+    }
+
+    private static class JarLoader {
+
+        private final SkylineClassLoader loader;
+
+        private final long checksum;
+
+        private JarLoader(SkylineClassLoader loader, long checksum) {
+            this.loader = loader;
+            this.checksum = checksum;
+        }
+
+        private String version() {
+            return Long.toHexString(checksum);
+        }
+    }
+
+    /**
+     * Finds resources through the current loader of every jar, defines no class itself.
+     */
+    private class PluginResourceClassLoader extends ClassLoader {
+
+        private PluginResourceClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected URL findResource(String name) {
+            for (String jarName : jarNames()) {
+                URL url = ((SkylineClassLoader) getClassLoader(jarName)).findResource(name);
+                if (url != null) {
+                    return url;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        protected Enumeration<URL> findResources(String name) throws IOException {
+            List<URL> resources = new ArrayList<>();
+            for (String jarName : jarNames()) {
+                resources.addAll(Collections.list(((SkylineClassLoader) getClassLoader(jarName)).findResources(name)));
+            }
+            return Collections.enumeration(resources);
+        }
+
+        private String[] jarNames() {
+            String[] jarNames = pluginDir.list((dir, name) -> name.endsWith(".jar"));
+            return jarNames == null ? new String[0] : jarNames;
+        }
+    }
+}
@@ -18,28 +18,39 @@
 
 package org.apache.skyline.engine.loader;
 
-import lombok.RequiredArgsConstructor;
 import org.apache.skyline.commons.exception.PackageNotFoundException;
 import org.apache.skyline.commons.exception.SkylineException;
 import org.apache.skyline.engine.support.SkylinePackagePath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
-public class SkylineClassLoader extends ClassLoader {
+/**
+ * Loads plugin classes from the jars of the plugin dir, or from a single plugin jar. The jars
+ * are scanned once into an entry name to jar index, classes are then read in bulk straight
+ * from the owning jar and defined with the package and code source of that jar.
+ */
+public class SkylineClassLoader extends ClassLoader implements Closeable {
 
     static {
         registerAsParallelCapable();
@@ -47,61 +58,67 @@ public class SkylineClassLoader extends ClassLoader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SkylineClassLoader.class);
 
-    private final File pluginDir;
-    private List<Jar> allJars;
+    /**
+     * plugin dir or plugin jar.
+     */
+    private final File source;
+
+    private volatile JarIndex jarIndex;
 
     private final ReentrantLock jarScanLock = new ReentrantLock();
 
     public SkylineClassLoader(ClassLoader parent, String pluginPath) throws PackageNotFoundException {
         super(parent);
         File pathDir = SkylinePackagePath.getPath();
-        pluginDir = new File(pathDir, pluginPath);
-        if (!pluginDir.exists()) {
-            boolean mkdirs = pluginDir.mkdirs();
+        source = new File(pathDir, pluginPath);
+        if (!source.exists()) {
+            boolean mkdirs = source.mkdirs();
             if (!mkdirs) {
                 throw new SkylineException("make plugin dir error");
             }
         }
     }
 
+    /**
+     * Loader of a single plugin jar.
+     */
+    public SkylineClassLoader(ClassLoader parent, File pluginJar) {
+        super(parent);
+        if (!pluginJar.isFile()) {
+            throw new SkylineException("plugin jar " + pluginJar + " not found");
+        }
+        source = pluginJar;
+    }
+
     @Override
     protected Class<?> findClass(String name) throws ClassNotFoundException {
-        List<Jar> allJars = getAllJars();
         String path = name.replace('.', '/').concat(".class");
-        for (Jar jar : allJars) {
+        Jar jar = getJarIndex().entries.get(path);
+        if (jar == null) {
+            throw new ClassNotFoundException("Can't find " + name);
+        }
+        try {
             JarEntry entry = jar.jarFile.getJarEntry(path);
-            if (entry == null) {
-                continue;
-            }
-            try {
-                URL classFileUrl = new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + path);
-                byte[] data;
-                try (final BufferedInputStream is = new BufferedInputStream(
-                    classFileUrl.openStream()); final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    int ch;
-                    while ((ch = is.read()) != -1) {
-                        baos.write(ch);
-                    }
-                    data = baos.toByteArray();
-                }
-                return defineClass(name, data, 0, data.length);
-            } catch (IOException e) {
-                LOGGER.error("find class fail.", e);
+            byte[] data;
+            try (InputStream is = jar.jarFile.getInputStream(entry)) {
+                long size = entry.getSize();
+                data = size >= 0 && size <= Integer.MAX_VALUE ? is.readNBytes((int) size) : is.readAllBytes();
             }
+            definePackageIfAbsent(name, jar);
+            return defineClass(name, data, 0, data.length, jar.protectionDomain);
+        } catch (IOException e) {
+            LOGGER.error("find class fail.", e);
+            throw new ClassNotFoundException("Can't read " + name + " from " + jar.sourceFile, e);
         }
-        throw new ClassNotFoundException("Can't find " + name);
     }
 
     @Override
     protected URL findResource(String name) {
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
-            JarEntry entry = jar.jarFile.getJarEntry(name);
-            if (entry != null) {
-                try {
-                    return new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name);
-                } catch (MalformedURLException ignored) {
-                }
+        Jar jar = getJarIndex().entries.get(name);
+        if (jar != null) {
+            try {
+                return jar.urlOf(name);
+            } catch (MalformedURLException ignored) {
             }
         }
         return null;
@@ -109,67 +126,150 @@ public class SkylineClassLoader extends ClassLoader {
 
     @Override
     protected Enumeration<URL> findResources(String name) throws IOException {
-        List<URL> allResources = new LinkedList<>();
-        List<Jar> allJars = getAllJars();
-        for (Jar jar : allJars) {
-            JarEntry entry = jar.jarFile.getJarEntry(name);
-            if (entry != null) {
-                allResources.add(new URL("jar:file:" + jar.sourceFile.getAbsolutePath() + "!/" + name));
+        List<URL> allResources = new ArrayList<>();
+        for (Jar jar : getJarIndex().jars) {
+            if (jar.jarFile.getJarEntry(name) != null) {
+                allResources.add(jar.urlOf(name));
             }
         }
+        return Collections.enumeration(allResources);
+    }
 
-        final Iterator<URL> iterator = allResources.iterator();
-        return new Enumeration<URL>() {
-            @Override
-            public boolean hasMoreElements() {
-                return iterator.hasNext();
-            }
-
-            @Override
-            public URL nextElement() {
-                return iterator.next();
+    private void definePackageIfAbsent(String className, Jar jar) {
+        int lastDot = className.lastIndexOf('.');
+        if (lastDot < 0) {
+            return;
+        }
+        String packageName = className.substring(0, lastDot);
+        if (getDefinedPackage(packageName) != null) {
+            return;
+        }
+        try {
+            Manifest manifest = jar.manifest;
+            if (manifest == null) {
+                definePackage(packageName, null, null, null, null, null, null, null);
+                return;
             }
-        };
+            Attributes attributes = manifest.getMainAttributes();
+            URL sealBase = "true".equalsIgnoreCase(attributes.getValue(Attributes.Name.SEALED)) ? jar.codeSourceUrl : null;
+            definePackage(packageName,
+                    attributes.getValue(Attributes.Name.SPECIFICATION_TITLE),
+                    attributes.getValue(Attributes.Name.SPECIFICATION_VERSION),
+                    attributes.getValue(Attributes.Name.SPECIFICATION_VENDOR),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_TITLE),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION),
+                    attributes.getValue(Attributes.Name.IMPLEMENTATION_VENDOR),
+                    sealBase);
+        } catch (IllegalArgumentException ignored) {
+            // defined by a concurrent thread meanwhile
+        }
     }
 
-    private List<Jar> getAllJars() {
-        if (allJars == null) {
+    private JarIndex getJarIndex() {
+        if (jarIndex == null) {
             jarScanLock.lock();
             try {
-                if (allJars == null) {
-                    allJars = doGetJars();
+                if (jarIndex == null) {
+                    jarIndex = doIndexJars();
                 }
             } finally {
                 jarScanLock.unlock();
             }
         }
 
-        return allJars;
+        return jarIndex;
     }
 
-    private LinkedList<Jar> doGetJars() {
-        LinkedList<Jar> jars = new LinkedList<>();
-        if (pluginDir.exists() && pluginDir.isDirectory()) {
-            String[] jarFileNames = pluginDir.list((dir, name) -> name.endsWith(".jar"));
-            if (jarFileNames != null) {
-                for (String fileName : jarFileNames) {
+    /**
+     * Releases the jar file handles, a closed loader no longer finds any class or resource.
+     */
+    @Override
+    public void close() {
+        jarScanLock.lock();
+        try {
+            JarIndex index = jarIndex;
+            jarIndex = new JarIndex(Collections.emptyList(), Collections.emptyMap());
+            if (index != null) {
+                for (Jar jar : index.jars) {
                     try {
-                        File file = new File(pluginDir, fileName);
-                        Jar jar = new Jar(new JarFile(file), file);
-                        jars.add(jar);
-                        LOGGER.info("{} loaded.", file.toString());
+                        jar.jarFile.close();
                     } catch (IOException e) {
-                        LOGGER.error("{} jar file can't be resolved", fileName, e);
+                        LOGGER.warn("close {} failure.", jar.sourceFile, e);
                     }
                 }
             }
+        } finally {
+            jarScanLock.unlock();
+        }
+    }
+
+    private JarIndex doIndexJars() {
+        List<Jar> jars = new ArrayList<>();
+        Map<String, Jar> entries = new HashMap<>();
+        String[] jarFileNames = null;
+        File jarDir = source;
+        if (source.isFile()) {
+            jarDir = source.getParentFile();
+            jarFileNames = new String[]{source.getName()};
+        } else if (source.isDirectory()) {
+            jarFileNames = source.list((dir, name) -> name.endsWith(".jar"));
+        }
+        if (jarFileNames != null) {
+            for (String fileName : jarFileNames) {
+                try {
+                    File file = new File(jarDir, fileName);
+                    Jar jar = new Jar(new JarFile(file), file, this);
+                    jars.add(jar);
+                    // the first jar owning an entry wins, as with the former linear probing
+                    jar.jarFile.stream().filter(entry -> !entry.isDirectory())
+                            .forEach(entry -> entries.putIfAbsent(entry.getName(), jar));
+                    LOGGER.info("{} loaded.", file.toString());
+                } catch (IOException e) {
+                    LOGGER.error("{} jar file can't be resolved", fileName, e);
+                }
+            }
+        }
+        return new JarIndex(jars, entries);
+    }
+
+    private static class JarIndex {
+
+        private final List<Jar> jars;
+
+        /**
+         * entry name to the jar owning it.
+         */
+        private final Map<String, Jar> entries;
+
+        private JarIndex(List<Jar> jars, Map<String, Jar> entries) {
+            this.jars = jars;
+            this.entries = entries;
         }
-        return jars;
     }
 
-    @RequiredArgsConstructor
     private static class Jar {
+
         private final JarFile jarFile;
+
         private final File sourceFile;
+
+        private final URL codeSourceUrl;
+
+        private final Manifest manifest;
+
+        private final ProtectionDomain protectionDomain;
+
+        private Jar(JarFile jarFile, File sourceFile, ClassLoader classLoader) throws IOException {
+            this.jarFile = jarFile;
+            this.sourceFile = sourceFile;
+            this.codeSourceUrl = sourceFile.toURI().toURL();
+            this.manifest = jarFile.getManifest();
+            this.protectionDomain = new ProtectionDomain(new CodeSource(codeSourceUrl, (Certificate[]) null),
+                    null, classLoader, null);
+        }
+
+        private URL urlOf(String name) throws MalformedURLException {
+            return new URL("jar:file:" + sourceFile.getAbsolutePath() + "!/" + name);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.predicate;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Host patterns with {@link AntPathMatcher} semantics over {@code .} separated labels,
+ * compiled once. Literal hosts are looked up in a hash map, the other patterns are put in
+ * a trie keyed by their labels from right to left, with {@code *}, {@code **} and per
+ * label wildcard / template variable edges. A match walks the host once and extracts the
+ * variables of the first matching pattern in the same pass.
+ * <p>
+ * Hosts or patterns with empty labels, on which AntPathMatcher is lenient, fall back to it.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 18:40
+ */
+public final class HostMatcher {
+
+    private static final PathMatcher FALLBACK = new AntPathMatcher(".");
+
+    /**
+     * same label syntax as AntPathMatcher: ? * {name} {name:regex}
+     */
+    private static final Pattern LABEL_TOKEN = Pattern.compile("\\?|\\*|\\{((?:\\{[^.]+?}|[^.{}]|\\\\[{}])+?)}");
+
+    private final List<String> patterns;
+
+    private final Map<String, Integer> exact = new HashMap<>();
+
+    private final Node root = new Node();
+
+    /**
+     * most template variables a single pattern declares.
+     */
+    private int maxVariables;
+
+    /**
+     * some pattern is not supported by the trie, the patterns are matched one by one.
+     */
+    private final boolean fallback;
+
+    private HostMatcher(List<String> patterns) {
+        this.patterns = patterns;
+        boolean unsupported = false;
+        for (int i = 0; i < patterns.size() && !unsupported; i++) {
+            String pattern = patterns.get(i);
+            if (hasEmptyLabel(pattern)) {
+                unsupported = true;
+            } else if (isLiteral(pattern)) {
+                exact.putIfAbsent(pattern, i);
+            } else {
+                insert(pattern, i);
+            }
+        }
+        this.fallback = unsupported;
+    }
+
+    public static HostMatcher compile(List<String> patterns) {
+        return new HostMatcher(new ArrayList<>(patterns));
+    }
+
+    /**
+     * @return the template variables of the first matching pattern, null when none matches
+     */
+    public Map<String, String> match(String host) {
+        if (fallback || hasEmptyLabel(host)) {
+            for (String pattern : patterns) {
+                if (FALLBACK.match(pattern, host)) {
+                    return FALLBACK.extractUriTemplateVariables(pattern, host);
+                }
+            }
+            return null;
+        }
+        Integer exactIndex = exact.get(host);
+        Search search = new Search(splitReversed(host), exactIndex == null ? Integer.MAX_VALUE : exactIndex, maxVariables);
+        search.walk(root, 0);
+        if (search.captures == null) {
+            return exactIndex == null ? null : Collections.emptyMap();
+        }
+        return search.captures;
+    }
+
+    private void insert(String pattern, int index) {
+        String[] labels = splitReversed(pattern);
+        int variables = 0;
+        Node node = root;
+        node.min = Math.min(node.min, index);
+        for (String label : labels) {
+            if ("**".equals(label)) {
+                node = node.doubleWildcard == null ? (node.doubleWildcard = new Node()) : node.doubleWildcard;
+            } else if ("*".equals(label)) {
+                node = node.wildcard == null ? (node.wildcard = new Node()) : node.wildcard;
+            } else if (isLiteral(label)) {
+                if (node.literals == null) {
+                    node.literals = new HashMap<>();
+                }
+                node = node.literals.computeIfAbsent(label, l -> new Node());
+            } else {
+                Edge edge = Edge.of(label);
+                if (node.edges == null) {
+                    node.edges = new ArrayList<>();
+                }
+                node.edges.add(edge);
+                variables += edge.variables.size();
+                node = edge.child;
+            }
+            node.min = Math.min(node.min, index);
+        }
+        node.terminal = Math.min(node.terminal, index);
+        maxVariables = Math.max(maxVariables, variables);
+    }
+
+    private static String[] splitReversed(String value) {
+        int count = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '.') {
+                count++;
+            }
+        }
+        String[] labels = new String[count];
+        int end = value.length();
+        for (int i = 0; i < count; i++) {
+            int dot = value.lastIndexOf('.', end - 1);
+            labels[i] = value.substring(dot + 1, end);
+            end = dot;
+        }
+        return labels;
+    }
+
+    /**
+     * AntPathMatcher skips empty labels, such a pattern or host matches its compacted form.
+     */
+    public static boolean hasEmptyLabel(String value) {
+        return value.isEmpty() || value.charAt(0) == '.' || value.charAt(value.length() - 1) == '.' || value.contains("..");
+    }
+
+    private static boolean isLiteral(String value) {
+        return value.indexOf('*') < 0 && value.indexOf('?') < 0 && value.indexOf('{') < 0;
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> literals;
+
+        private List<Edge> edges;
+
+        private Node wildcard;
+
+        private Node doubleWildcard;
+
+        /**
+         * lowest index of a pattern ending here.
+         */
+        private int terminal = Integer.MAX_VALUE;
+
+        /**
+         * lowest index of a pattern ending in this subtree.
+         */
+        private int min = Integer.MAX_VALUE;
+    }
+
+    /**
+     * A label with wildcards or template variables, matched by a regex.
+     */
+    private static final class Edge {
+
+        private final Pattern pattern;
+
+        private final List<String> variables;
+
+        private final Node child = new Node();
+
+        private Edge(Pattern pattern, List<String> variables) {
+            this.pattern = pattern;
+            this.variables = variables;
+        }
+
+        private static Edge of(String label) {
+            StringBuilder regex = new StringBuilder();
+            List<String> variables = new ArrayList<>();
+            Matcher matcher = LABEL_TOKEN.matcher(label);
+            int end = 0;
+            while (matcher.find()) {
+                regex.append(quote(label, end, matcher.start()));
+                String token = matcher.group();
+                if ("?".equals(token)) {
+                    regex.append('.');
+                } else if ("*".equals(token)) {
+                    regex.append(".*");
+                } else {
+                    String variable = token.substring(1, token.length() - 1);
+                    int colon = variable.indexOf(':');
+                    if (colon < 0) {
+                        regex.append("(.*)");
+                        variables.add(variable);
+                    } else {
+                        regex.append('(').append(variable.substring(colon + 1)).append(')');
+                        variables.add(variable.substring(0, colon));
+                    }
+                }
+                end = matcher.end();
+            }
+            regex.append(quote(label, end, label.length()));
+            return new Edge(Pattern.compile(regex.toString()), variables);
+        }
+
+        private static String quote(String s, int start, int end) {
+            return start == end ? "" : Pattern.quote(s.substring(start, end));
+        }
+    }
+
+    /**
+     * Depth first walk keeping the first pattern, by config order, matching the host.
+     */
+    private static final class Search {
+
+        private final String[] labels;
+
+        private int best;
+
+        private final String[] stack;
+
+        private int depth;
+
+        private Map<String, String> captures;
+
+        private Search(String[] labels, int best, int maxVariables) {
+            this.labels = labels;
+            this.best = best;
+            this.stack = new String[maxVariables * 2];
+        }
+
+        private void walk(Node node, int position) {
+            if (node.min >= best) {
+                return;
+            }
+            if (node.doubleWildcard != null) {
+                // longest first: as AntPathMatcher, the labels between two ** bind leftmost
+                for (int next = labels.length; next >= position; next--) {
+                    walk(node.doubleWildcard, next);
+                }
+            }
+            if (position == labels.length) {
+                if (node.terminal < best) {
+                    best = node.terminal;
+                    captures = snapshot();
+                }
+                return;
+            }
+            String label = labels[position];
+            if (node.literals != null) {
+                Node child = node.literals.get(label);
+                if (child != null) {
+                    walk(child, position + 1);
+                }
+            }
+            if (node.wildcard != null) {
+                walk(node.wildcard, position + 1);
+            }
+            if (node.edges != null) {
+                for (Edge edge : node.edges) {
+                    if (edge.child.min >= best) {
+                        continue;
+                    }
+                    Matcher matcher = edge.pattern.matcher(label);
+                    if (!matcher.matches()) {
+                        continue;
+                    }
+                    int saved = depth;
+                    // pushed backwards, the stack then reads right to left like the labels
+                    for (int i = edge.variables.size() - 1; i >= 0; i--) {
+                        push(edge.variables.get(i), matcher.group(i + 1));
+                    }
+                    walk(edge.child, position + 1);
+                    depth = saved;
+                }
+            }
+        }
+
+        private void push(String name, String value) {
+            stack[depth++] = name;
+            stack[depth++] = value;
+        }
+
+        private Map<String, String> snapshot() {
+            if (depth == 0) {
+                return Collections.emptyMap();
+            }
+            Map<String, String> variables = new LinkedHashMap<>();
+            // in pattern order, a repeated variable keeps its rightmost value as with AntPathMatcher
+            for (int i = depth - 2; i >= 0; i -= 2) {
+                variables.put(stack[i], stack[i + 1]);
+            }
+            return variables;
+        }
+    }
+}
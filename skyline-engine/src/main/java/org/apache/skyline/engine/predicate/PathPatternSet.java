@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.predicate;
+
+import lombok.Getter;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The path patterns of one predicate, tried in config order. Larger sets are bucketed by
+ * the literal first segment of each pattern so a path is only tried against the patterns
+ * of its first segment plus those starting with a wildcard.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 19:20
+ */
+public final class PathPatternSet {
+
+    /**
+     * below this size a linear scan is cheaper than the bucket lookup.
+     */
+    private static final int BUCKET_THRESHOLD = 4;
+
+    private final PathPattern[] patterns;
+
+    /**
+     * first segment to the patterns which may match it, in config order, null when not bucketed.
+     */
+    private final Map<String, PathPattern[]> buckets;
+
+    /**
+     * patterns whose first segment is not a literal.
+     */
+    private final PathPattern[] unbucketed;
+
+    public PathPatternSet(List<PathPattern> patterns) {
+        this.patterns = patterns.toArray(new PathPattern[0]);
+        if (patterns.size() < BUCKET_THRESHOLD) {
+            this.buckets = null;
+            this.unbucketed = this.patterns;
+            return;
+        }
+        List<PathPattern> wildcards = new ArrayList<>();
+        Map<String, List<PathPattern>> grouped = new HashMap<>();
+        for (PathPattern pattern : patterns) {
+            String segment = literalFirstSegment(pattern.getPatternString());
+            if (segment == null) {
+                wildcards.add(pattern);
+                // a wildcard pattern also precedes the literal patterns after it
+                grouped.values().forEach(bucket -> bucket.add(pattern));
+            } else {
+                grouped.computeIfAbsent(segment, s -> new ArrayList<>(wildcards)).add(pattern);
+            }
+        }
+        this.buckets = new HashMap<>();
+        grouped.forEach((segment, bucket) -> buckets.put(segment, bucket.toArray(new PathPattern[0])));
+        this.unbucketed = wildcards.toArray(new PathPattern[0]);
+    }
+
+    /**
+     * Matches and extracts in one go with the first matching pattern.
+     */
+    public Match match(PathContainer path) {
+        PathPattern[] candidates = candidates(path);
+        for (PathPattern pattern : candidates) {
+            PathPattern.PathMatchInfo info = pattern.matchAndExtract(path);
+            if (info != null) {
+                return new Match(pattern, info);
+            }
+        }
+        return null;
+    }
+
+    private PathPattern[] candidates(PathContainer path) {
+        if (buckets == null) {
+            return patterns;
+        }
+        List<PathContainer.Element> elements = path.elements();
+        if (elements.size() < 2 || !(elements.get(1) instanceof PathContainer.PathSegment)) {
+            return unbucketed;
+        }
+        PathPattern[] bucket = buckets.get(((PathContainer.PathSegment) elements.get(1)).valueToMatch());
+        return bucket == null ? unbucketed : bucket;
+    }
+
+    /**
+     * @return the first segment when it is plain text, null when it may match anything else
+     */
+    private static String literalFirstSegment(String pattern) {
+        if (!pattern.startsWith("/")) {
+            return null;
+        }
+        int end = pattern.indexOf('/', 1);
+        String segment = pattern.substring(1, end < 0 ? pattern.length() : end);
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{' || c == '%' || c == ';' || c == '\\') {
+                return null;
+            }
+        }
+        return segment.isEmpty() ? null : segment;
+    }
+
+    @Getter
+    public static final class Match {
+
+        private final PathPattern pattern;
+
+        private final PathPattern.PathMatchInfo info;
+
+        private Match(PathPattern pattern, PathPattern.PathMatchInfo info) {
+            this.pattern = pattern;
+            this.info = info;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.predicate;
+
+import java.util.regex.Pattern;
+
+/**
+ * Full match of a value against a regexp, same semantics as {@link String#matches(String)}.
+ * The regexp is compiled once; literals, literal prefixes followed by {@code .*} and
+ * literal prefixes followed by a digit run ({@code \d+}, {@code [0-9]*}...) are matched
+ * without the regex engine.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 17:40
+ */
+@FunctionalInterface
+public interface ValueMatcher {
+
+    boolean matches(String value);
+
+    static ValueMatcher compile(String regexp) {
+        String body = regexp;
+        if (body.startsWith("^")) {
+            body = body.substring(1);
+        }
+        if (body.endsWith("$") && !isEscaped(body, body.length() - 1)) {
+            body = body.substring(0, body.length() - 1);
+        }
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < body.length()) {
+            char c = body.charAt(i);
+            if (c == '\\' && i + 1 < body.length() && !Character.isLetterOrDigit(body.charAt(i + 1))) {
+                literal.append(body.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            if ("\\.[]{}()*+?^$|".indexOf(c) >= 0) {
+                break;
+            }
+            literal.append(c);
+            i++;
+        }
+        String prefix = literal.toString();
+        String rest = body.substring(i);
+        switch (rest) {
+            case "":
+                return prefix::equals;
+            case ".*":
+                return new PrefixMatcher(prefix);
+            case "\\d+":
+            case "[0-9]+":
+                return new DigitsMatcher(prefix, 1);
+            case "\\d*":
+            case "[0-9]*":
+                return new DigitsMatcher(prefix, 0);
+            default:
+                Pattern pattern = Pattern.compile(regexp);
+                return value -> pattern.matcher(value).matches();
+        }
+    }
+
+    private static boolean isEscaped(String s, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && s.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * {@code prefix.*}, the dot does not match line terminators.
+     */
+    final class PrefixMatcher implements ValueMatcher {
+
+        private final String prefix;
+
+        private PrefixMatcher(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean matches(String value) {
+            if (!value.startsWith(prefix)) {
+                return false;
+            }
+            for (int i = prefix.length(); i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == 0x2028 || c == 0x2029) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * {@code prefix\d+} or {@code prefix\d*}, digits are ascii as for the default {@code \d}.
+     */
+    final class DigitsMatcher implements ValueMatcher {
+
+        private final String prefix;
+
+        private final int minDigits;
+
+        private DigitsMatcher(String prefix, int minDigits) {
+            this.prefix = prefix;
+            this.minDigits = minDigits;
+        }
+
+        @Override
+        public boolean matches(String value) {
+            if (value.length() - prefix.length() < minDigits || !value.startsWith(prefix)) {
+                return false;
+            }
+            for (int i = prefix.length(); i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
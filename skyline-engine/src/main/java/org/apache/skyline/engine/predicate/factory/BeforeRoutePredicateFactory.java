@@ -17,6 +17,8 @@ package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.support.CoarseClock;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
@@ -47,13 +49,18 @@ public class BeforeRoutePredicateFactory extends AbstractRoutePredicateFactory<B
         return Collections.singletonList(DATETIME_KEY);
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.CHEAP;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
+        long before = config.getDatetime().toInstant().toEpochMilli();
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
-                final ZonedDateTime now = ZonedDateTime.now();
-                return now.isBefore(config.getDatetime());
+                return CoarseClock.currentTimeMillis() < before;
             }
 
             @Override
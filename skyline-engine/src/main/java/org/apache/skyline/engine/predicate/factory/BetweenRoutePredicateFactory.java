@@ -16,6 +16,8 @@
 package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.support.CoarseClock;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.util.Assert;
 import org.springframework.validation.annotation.Validated;
@@ -52,16 +54,23 @@ public class BetweenRoutePredicateFactory extends AbstractRoutePredicateFactory<
         return Arrays.asList(DATETIME1_KEY, DATETIME2_KEY);
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.CHEAP;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
         Assert.isTrue(config.getDatetime1().isBefore(config.getDatetime2()),
                 config.getDatetime1() + " must be before " + config.getDatetime2());
 
+        long after = config.getDatetime1().toInstant().toEpochMilli();
+        long before = config.getDatetime2().toInstant().toEpochMilli();
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
-                ZonedDateTime now = ZonedDateTime.now();
-                return now.isAfter(config.getDatetime1()) && now.isBefore(config.getDatetime2());
+                long now = CoarseClock.currentTimeMillis();
+                return now > after && now < before;
             }
 
             @Override
@@ -16,6 +16,8 @@
 package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.predicate.ValueMatcher;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.http.HttpCookie;
 import org.springframework.validation.annotation.Validated;
@@ -51,8 +53,14 @@ public class CookieRoutePredicateFactory extends AbstractRoutePredicateFactory<C
         return Arrays.asList(NAME_KEY, REGEXP_KEY);
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.EXPENSIVE;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
+        ValueMatcher matcher = ValueMatcher.compile(config.regexp);
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
@@ -61,7 +69,7 @@ public class CookieRoutePredicateFactory extends AbstractRoutePredicateFactory<C
                     return false;
                 }
                 for (HttpCookie cookie : cookies) {
-                    if (cookie.getValue().matches(config.regexp)) {
+                    if (matcher.matches(cookie.getValue())) {
                         return true;
                     }
                 }
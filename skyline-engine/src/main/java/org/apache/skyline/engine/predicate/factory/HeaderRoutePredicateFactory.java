@@ -17,6 +17,8 @@ package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.predicate.ValueMatcher;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.annotation.Validated;
@@ -53,9 +55,15 @@ public class HeaderRoutePredicateFactory extends AbstractRoutePredicateFactory<H
         return Arrays.asList(HEADER_KEY, REGEXP_KEY);
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.EXPENSIVE;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
-        boolean hasRegex = !ObjectUtils.isEmpty(config.regexp);
+        // compiled once here, not per request
+        ValueMatcher matcher = ObjectUtils.isEmpty(config.regexp) ? null : ValueMatcher.compile(config.regexp);
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
@@ -64,8 +72,13 @@ public class HeaderRoutePredicateFactory extends AbstractRoutePredicateFactory<H
                 if (values.isEmpty()) {
                     return false;
                 }
-                if (hasRegex) {
-                    return values.stream().anyMatch(s -> s.matches(config.regexp));
+                if (matcher != null) {
+                    for (String value : values) {
+                        if (matcher.matches(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
                 }
                 // there is a value and since regexp is empty, we only check existence
                 return true;
@@ -17,9 +17,9 @@ package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
 import org.apache.skyline.commons.utils.WebUtils;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.predicate.HostMatcher;
 import org.apache.skyline.model.predicate.SkylinePredicate;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -39,7 +39,6 @@ public class HostRoutePredicateFactory extends AbstractRoutePredicateFactory<Hos
      * Host Key
      */
     public static final String HOST_KEY = "Host";
-    private final PathMatcher pathMatcher = new AntPathMatcher(".");
 
     public HostRoutePredicateFactory() {
         super(Config.class);
@@ -55,8 +54,24 @@ public class HostRoutePredicateFactory extends AbstractRoutePredicateFactory<Hos
         return ShortcutType.GATHER_LIST;
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.PATTERN;
+    }
+
+    @Override
+    public boolean writesAttributes() {
+        return true;
+    }
+
+    @Override
+    public boolean routeKeyOnly() {
+        return true;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
+        HostMatcher hostMatcher = HostMatcher.compile(config.getPatterns());
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
@@ -64,10 +79,8 @@ public class HostRoutePredicateFactory extends AbstractRoutePredicateFactory<Hos
                 if (host == null) {
                     return false;
                 }
-                String matchPattern = config.getPatterns().stream()
-                        .filter(p -> pathMatcher.match(p, host)).findFirst().orElse(null);
-                if (matchPattern != null) {
-                    Map<String, String> variables = pathMatcher.extractUriTemplateVariables(matchPattern, host);
+                Map<String, String> variables = hostMatcher.match(host);
+                if (variables != null) {
                     WebUtils.putUriTemplateVariables(exchange, variables);
                     return true;
                 }
@@ -17,6 +17,7 @@ package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skyline.engine.enums.PredicateCost;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.http.HttpMethod;
 import org.springframework.validation.annotation.Validated;
@@ -48,6 +49,16 @@ public class MethodRoutePredicateFactory extends AbstractRoutePredicateFactory<M
         return ShortcutType.GATHER_LIST;
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.CHEAP;
+    }
+
+    @Override
+    public boolean routeKeyOnly() {
+        return true;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
 
@@ -16,6 +16,8 @@
 package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.predicate.PathPatternSet;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,19 +25,18 @@ import org.springframework.http.server.PathContainer;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.pattern.PathPattern;
-import org.springframework.web.util.pattern.PathPattern.PathMatchInfo;
 import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Predicate;
 
 import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_API_IDENTITY;
 import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_MATCHED_PATH_API_IDENTITY;
 import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_MATCHED_PATH_ATTR;
 import static org.apache.skyline.commons.utils.WebUtils.putUriTemplateVariables;
+import static org.apache.skyline.engine.support.ServerWebExchangeUtils.getPathContainer;
 
 /**
  * @author lijian
@@ -73,6 +74,21 @@ public class PathRoutePredicateFactory extends AbstractRoutePredicateFactory<Pat
         }
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.PATTERN;
+    }
+
+    @Override
+    public boolean writesAttributes() {
+        return true;
+    }
+
+    @Override
+    public boolean routeKeyOnly() {
+        return true;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
         final ArrayList<PathPattern> pathPatterns = new ArrayList<>();
@@ -83,21 +99,17 @@ public class PathRoutePredicateFactory extends AbstractRoutePredicateFactory<Pat
                 pathPatterns.add(pathPattern);
             });
         }
+        PathPatternSet patternSet = new PathPatternSet(pathPatterns);
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
-                PathContainer path = PathContainer.parsePath(exchange.getRequest().getURI().getRawPath());
-                Optional<PathPattern> matchPattern = pathPatterns.stream()
-                        .filter(pathPattern -> pathPattern.matches(path)).findAny();
-                if (matchPattern.isPresent()) {
+                // parsed once per exchange, shared with the route index and the other apis
+                PathContainer path = getPathContainer(exchange);
+                PathPatternSet.Match match = patternSet.match(path);
+                if (match != null) {
                     traceMatch("Pattern", config.getPatterns(), path, true);
-                    PathMatchInfo pathMatchInfo = matchPattern.get().matchAndExtract(path);
-                    if (pathMatchInfo == null) {
-                        //todo customize exception
-                        throw new RuntimeException("PathPattern matchAndExtract error!");
-                    }
-                    putUriTemplateVariables(exchange, pathMatchInfo.getUriVariables());
-                    exchange.getAttributes().put(GATEWAY_PREDICATE_MATCHED_PATH_ATTR, matchPattern.get().getPatternString());
+                    putUriTemplateVariables(exchange, match.getInfo().getUriVariables());
+                    exchange.getAttributes().put(GATEWAY_PREDICATE_MATCHED_PATH_ATTR, match.getPattern().getPatternString());
                     String apiIdentity = (String) exchange.getAttributes().get(GATEWAY_PREDICATE_API_IDENTITY);
                     if (apiIdentity != null) {
                         exchange.getAttributes().put(GATEWAY_PREDICATE_MATCHED_PATH_API_IDENTITY, apiIdentity);
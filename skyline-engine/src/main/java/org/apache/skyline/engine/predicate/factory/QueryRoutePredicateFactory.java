@@ -17,6 +17,8 @@ package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.skyline.engine.enums.PredicateCost;
+import org.apache.skyline.engine.predicate.ValueMatcher;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
@@ -50,20 +52,31 @@ public class QueryRoutePredicateFactory extends AbstractRoutePredicateFactory<Qu
         return Arrays.asList(PARAM_KEY, REGEXP_KEY);
     }
 
+    @Override
+    public PredicateCost cost() {
+        return PredicateCost.EXPENSIVE;
+    }
+
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
+        ValueMatcher matcher = StringUtils.isNotBlank(config.regexp) ? ValueMatcher.compile(config.regexp) : null;
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
 
-                if (!StringUtils.isNotBlank(config.regexp)) {
+                if (matcher == null) {
                     return exchange.getRequest().getQueryParams().containsKey(config.param);
                 }
                 List<String> values = exchange.getRequest().getQueryParams().get(config.param);
                 if (values == null) {
                     return false;
                 }
-                return values.stream().anyMatch(v -> StringUtils.isNotBlank(v) && v.matches(config.regexp));
+                for (String value : values) {
+                    if (StringUtils.isNotBlank(value) && matcher.matches(value)) {
+                        return true;
+                    }
+                }
+                return false;
             }
 
             @Override
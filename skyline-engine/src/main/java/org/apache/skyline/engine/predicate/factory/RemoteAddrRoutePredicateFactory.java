@@ -15,11 +15,10 @@
  */
 package org.apache.skyline.engine.predicate.factory;
 
-import io.netty.handler.ipfilter.IpFilterRuleType;
-import io.netty.handler.ipfilter.IpSubnetFilterRule;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.skyline.engine.support.ipresolver.RemoteAddressResolver;
+import org.apache.skyline.commons.support.ipresolver.RemoteAddressResolver;
+import org.apache.skyline.engine.support.ipresolver.CidrTrie;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,25 +65,22 @@ public class RemoteAddrRoutePredicateFactory extends AbstractRoutePredicateFacto
 
     @Override
     public Predicate<ServerWebExchange> apply(Config config) {
-        List<IpSubnetFilterRule> sources = convert(config.sources);
+        CidrTrie sources = CidrTrie.of(config.sources);
 
         return new SkylinePredicate() {
             @Override
             public boolean test(ServerWebExchange exchange) {
                 InetSocketAddress remoteAddress = config.remoteAddressResolver.resolve(exchange);
                 if (remoteAddress != null && remoteAddress.getAddress() != null) {
-                    String hostAddress = remoteAddress.getAddress().getHostAddress();
-                    String host = exchange.getRequest().getURI().getHost();
-
-                    if (LOG.isDebugEnabled() && !hostAddress.equals(host)) {
-                        LOG.debug("Remote addresses didn't match " + hostAddress + " != " + host);
-                    }
-
-                    for (IpSubnetFilterRule source : sources) {
-                        if (source.matches(remoteAddress)) {
-                            return true;
+                    if (LOG.isDebugEnabled()) {
+                        String hostAddress = remoteAddress.getAddress().getHostAddress();
+                        String host = exchange.getRequest().getURI().getHost();
+                        if (!hostAddress.equals(host)) {
+                            LOG.debug("Remote addresses didn't match " + hostAddress + " != " + host);
                         }
                     }
+
+                    return sources.contains(remoteAddress.getAddress());
                 }
 
                 return false;
@@ -102,26 +98,6 @@ public class RemoteAddrRoutePredicateFactory extends AbstractRoutePredicateFacto
         };
     }
 
-    private List<IpSubnetFilterRule> convert(List<String> values) {
-        List<IpSubnetFilterRule> sources = new ArrayList<>();
-        for (String arg : values) {
-            addSource(sources, arg);
-        }
-        return sources;
-    }
-
-    private void addSource(List<IpSubnetFilterRule> sources, String source) {
-        if (!source.contains("/")) { // no netmask, add default
-            source = source + "/32";
-        }
-
-        String[] ipAddressCidrPrefix = source.split("/", 2);
-        String ipAddress = ipAddressCidrPrefix[0];
-        int cidrPrefix = Integer.parseInt(ipAddressCidrPrefix[1]);
-
-        sources.add(new IpSubnetFilterRule(ipAddress, cidrPrefix, IpFilterRuleType.ACCEPT));
-    }
-
     @Validated
     public static class Config {
         @NotEmpty
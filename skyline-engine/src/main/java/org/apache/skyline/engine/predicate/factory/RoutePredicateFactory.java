@@ -4,6 +4,7 @@
  */
 package org.apache.skyline.engine.predicate.factory;
 
+import org.apache.skyline.engine.enums.PredicateCost;
 import org.apache.skyline.engine.support.NameUtils;
 import org.apache.skyline.engine.support.ServerWebExchangeUtils;
 import org.apache.skyline.engine.support.ShortcutConfigurable;
@@ -52,6 +53,29 @@ public interface RoutePredicateFactory<C> extends ShortcutConfigurable, Configur
         return ServerWebExchangeUtils.toAsyncPredicate(apply(config));
     }
 
+    /**
+     * Cost class used to order the predicates of an api, cheapest first.
+     */
+    default PredicateCost cost() {
+        return PredicateCost.MODERATE;
+    }
+
+    /**
+     * Whether a matching predicate writes exchange attributes later predicates or plugins
+     * observe, such predicates keep their relative order.
+     */
+    default boolean writesAttributes() {
+        return false;
+    }
+
+    /**
+     * Whether the predicate only reads the request method, the Host header and the raw path,
+     * apis made of such predicates only can have their matches cached.
+     */
+    default boolean routeKeyOnly() {
+        return false;
+    }
+
     default String name() {
         return NameUtils.normalizeRoutePredicateName(getClass());
     }
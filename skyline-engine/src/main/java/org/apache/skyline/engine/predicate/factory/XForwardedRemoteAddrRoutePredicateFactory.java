@@ -16,7 +16,7 @@
 package org.apache.skyline.engine.predicate.factory;
 
 import lombok.Getter;
-import org.apache.skyline.engine.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.apache.skyline.commons.support.ipresolver.XForwardedRemoteAddressResolver;
 import org.apache.skyline.model.predicate.SkylinePredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
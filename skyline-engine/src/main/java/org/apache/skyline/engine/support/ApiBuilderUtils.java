@@ -35,6 +35,7 @@ public final class ApiBuilderUtils {
                 .name(apiDefinition.getName())
                 .memo(apiDefinition.getMemo())
                 .order(apiDefinition.getOrder())
+                .version(apiDefinition.getVersion())
                 .createTime(apiDefinition.getCreateTime())
                 .updateTime(apiDefinition.getUpdateTime())
                 .apiGroup(apiDefinition.getApiGroup())
@@ -55,6 +56,7 @@ public final class ApiBuilderUtils {
                 .name(apiDefinition.getName())
                 .memo(apiDefinition.getMemo())
                 .order(apiDefinition.getOrder())
+                .version(apiDefinition.getVersion())
                 .createTime(apiDefinition.getCreateTime())
                 .updateTime(apiDefinition.getUpdateTime())
                 .apiGroup(apiDefinition.getApiGroup())
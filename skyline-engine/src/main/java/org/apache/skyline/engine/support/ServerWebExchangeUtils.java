@@ -17,11 +17,14 @@ package org.apache.skyline.engine.support;
 
 import org.apache.skyline.model.predicate.AsyncPredicate;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
 import org.springframework.util.Assert;
 import org.springframework.web.server.ServerWebExchange;
 
 import java.util.function.Predicate;
 
+import static org.apache.skyline.commons.constant.CommonConstant.GATEWAY_PREDICATE_PATH_CONTAINER_ATTR;
+
 /**
  * @author lijian
  * @since time: 2022-09-05 17:26
@@ -33,6 +36,23 @@ public final class ServerWebExchangeUtils {
         return AsyncPredicate.from(predicate);
     }
 
+    /**
+     * Parsed raw path of the request, parsed on first use and kept on the exchange as long
+     * as the request path does not change.
+     */
+    public static PathContainer getPathContainer(ServerWebExchange exchange) {
+        String rawPath = exchange.getRequest().getURI().getRawPath();
+        if (rawPath == null) {
+            rawPath = "";
+        }
+        PathContainer path = exchange.getAttribute(GATEWAY_PREDICATE_PATH_CONTAINER_ATTR);
+        if (path == null || !path.value().equals(rawPath)) {
+            path = PathContainer.parsePath(rawPath);
+            exchange.getAttributes().put(GATEWAY_PREDICATE_PATH_CONTAINER_ATTR, path);
+        }
+        return path;
+    }
+
     public static String getExchangeDesc(ServerWebExchange serverWebExchange) {
         StringBuilder out = new StringBuilder();
         out.append("Request: ");
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.engine.support.ipresolver;
+
+import io.netty.util.NetUtil;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary prefix trie over the bits of IPv4 and IPv6 addresses, built once from a list of
+ * CIDRs. A lookup walks at most 32 or 128 bits no matter how many CIDRs were added, nodes
+ * live in primitive arrays.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 18:05
+ */
+public final class CidrTrie {
+
+    private final Bits v4 = new Bits();
+
+    private final Bits v6 = new Bits();
+
+    private CidrTrie() {
+    }
+
+    /**
+     * @param cidrs addresses with an optional {@code /prefix}, a bare address is a single host
+     */
+    public static CidrTrie of(List<String> cidrs) {
+        CidrTrie trie = new CidrTrie();
+        for (String cidr : cidrs) {
+            trie.add(cidr.trim());
+        }
+        return trie;
+    }
+
+    private void add(String cidr) {
+        int slash = cidr.indexOf('/');
+        String ip = slash < 0 ? cidr : cidr.substring(0, slash);
+        byte[] address = NetUtil.createByteArrayFromIpAddressString(ip);
+        if (address == null) {
+            throw new IllegalArgumentException("invalid ip address " + ip);
+        }
+        int maxPrefix = address.length * 8;
+        int prefix = slash < 0 ? maxPrefix : Integer.parseInt(cidr.substring(slash + 1));
+        if (prefix < 0 || prefix > maxPrefix) {
+            throw new IllegalArgumentException("invalid prefix length " + prefix + " of " + cidr);
+        }
+        (address.length == 4 ? v4 : v6).insert(address, prefix);
+    }
+
+    public boolean contains(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return (bytes.length == 4 ? v4 : v6).contains(bytes);
+    }
+
+    private static int bit(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    /**
+     * Node n has its children at {@code children[2n]} and {@code children[2n + 1]}, 0 means
+     * no child since the root is never a child.
+     */
+    private static final class Bits {
+
+        private int[] children = new int[2];
+
+        private boolean[] terminal = new boolean[1];
+
+        private int size = 1;
+
+        private void insert(byte[] address, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix; i++) {
+                if (terminal[node]) {
+                    // a shorter prefix already covers this one
+                    return;
+                }
+                int slot = 2 * node + bit(address, i);
+                if (children[slot] == 0) {
+                    // grow before indexing, newNode may replace the arrays
+                    int child = newNode();
+                    children[slot] = child;
+                }
+                node = children[slot];
+            }
+            terminal[node] = true;
+        }
+
+        private int newNode() {
+            if (size == terminal.length) {
+                terminal = Arrays.copyOf(terminal, size * 2);
+                children = Arrays.copyOf(children, size * 4);
+            }
+            return size++;
+        }
+
+        private boolean contains(byte[] address) {
+            int node = 0;
+            int bits = address.length * 8;
+            for (int i = 0; ; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                if (i == bits) {
+                    return false;
+                }
+                node = children[2 * node + bit(address, i)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+        }
+    }
+}
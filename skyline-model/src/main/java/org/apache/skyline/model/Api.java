@@ -21,6 +21,7 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.skyline.model.predicate.AsyncPredicate;
 import org.apache.skyline.plugin.SkylinePluginWrapper;
+import org.apache.skyline.plugin.api.SkylinePluginChain;
 import org.springframework.core.Ordered;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -60,8 +61,18 @@ public class Api implements Ordered {
 
     private AsyncPredicate<ServerWebExchange> predicate;
 
+    /**
+     * proven by the locator: the predicate only reads the request method, host and path.
+     */
+    private boolean routeKeyOnly;
+
     private List<SkylinePluginWrapper<?>> pluginWrappers = new ArrayList<>();
 
+    /**
+     * chain linked from {@link #pluginWrappers} when the api is built.
+     */
+    private SkylinePluginChain pluginChain;
+
     private Map<String, Object> metadata = new HashMap<>();
 
     @Override
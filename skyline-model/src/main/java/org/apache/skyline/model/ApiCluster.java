@@ -20,8 +20,11 @@ import lombok.Setter;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.skyline.model.enums.ApiServerQuota;
+import org.apache.skyline.model.enums.LoadBalancerType;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -50,6 +53,16 @@ public class ApiCluster {
 
     private Map<ApiServerQuota, Integer> instanceQuotas;
 
+    /**
+     * upstream servers, when empty requests go to {@link #domain}:{@link #port}.
+     */
+    private List<ApiInstance> instances = new ArrayList<>();
+
+    /**
+     * null means the default load balancer of the engine.
+     */
+    private LoadBalancerType loadBalancer;
+
     private Date createTime;
 
     private Date updateTime;
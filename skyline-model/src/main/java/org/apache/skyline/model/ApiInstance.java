@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.skyline.model.enums.ApiServerQuota;
+
+/**
+ * One upstream server of an api cluster.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:02
+ */
+@Setter
+@Getter
+public class ApiInstance {
+
+    private String host;
+
+    private int port;
+
+    private ApiServerQuota quota;
+
+    public ApiInstance() {
+    }
+
+    public ApiInstance(String host, int port, ApiServerQuota quota) {
+        this.host = host;
+        this.port = port;
+        this.quota = quota;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.DEFAULT_STYLE);
+    }
+}
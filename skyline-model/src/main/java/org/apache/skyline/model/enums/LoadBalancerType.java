@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.model.enums;
+
+/**
+ * Strategies used to pick an instance of an api cluster.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 15:04
+ */
+public enum LoadBalancerType {
+
+    ROUND_ROBIN,
+
+    /**
+     * round robin weighted by the cpu cores of the instance quota.
+     */
+    WEIGHTED_ROUND_ROBIN,
+
+    LEAST_REQUEST,
+
+    /**
+     * power of two choices on peak ewma latency times outstanding requests.
+     */
+    PEAK_EWMA
+}
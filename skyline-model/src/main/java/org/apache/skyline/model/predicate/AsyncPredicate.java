@@ -51,21 +51,43 @@ public interface AsyncPredicate<T> extends Function<T, Publisher<Boolean>>, HasC
         visitor.visit(this);
     }
 
+    /**
+     * Returns a plain predicate equivalent to this one when the whole tree is synchronous,
+     * so callers can evaluate it without entering reactor, or {@code null} when some part
+     * of the tree is genuinely asynchronous.
+     */
+    default Predicate<T> toSyncPredicate() {
+        return null;
+    }
+
     static AsyncPredicate<ServerWebExchange> from(Predicate<? super ServerWebExchange> predicate) {
         return new DefaultAsyncPredicate<>(SkylinePredicate.wrapIfNeeded(predicate));
     }
 
     class DefaultAsyncPredicate<T> implements AsyncPredicate<T> {
 
+        private static final Mono<Boolean> TRUE = Mono.just(true);
+
+        private static final Mono<Boolean> FALSE = Mono.just(false);
+
         private final Predicate<T> delegate;
 
         public DefaultAsyncPredicate(Predicate<T> delegate) {
             this.delegate = delegate;
         }
 
+        private static Mono<Boolean> just(boolean result) {
+            return result ? TRUE : FALSE;
+        }
+
         @Override
         public Publisher<Boolean> apply(T t) {
-            return Mono.just(delegate.test(t));
+            return just(delegate.test(t));
+        }
+
+        @Override
+        public Predicate<T> toSyncPredicate() {
+            return delegate;
         }
 
         @Override
@@ -87,16 +109,28 @@ public interface AsyncPredicate<T> extends Function<T, Publisher<Boolean>>, HasC
 
         private final AsyncPredicate<? super T> predicate;
 
+        private final Predicate<T> syncPredicate;
+
         public NegateAsyncPredicate(AsyncPredicate<? super T> predicate) {
             Assert.notNull(predicate, "predicate AsyncPredicate must not be null");
             this.predicate = predicate;
+            Predicate<? super T> sync = predicate.toSyncPredicate();
+            this.syncPredicate = sync == null ? null : t -> !sync.test(t);
         }
 
         @Override
         public Publisher<Boolean> apply(T t) {
+            if (syncPredicate != null) {
+                return DefaultAsyncPredicate.just(syncPredicate.test(t));
+            }
             return Mono.from(predicate.apply(t)).map(b -> !b);
         }
 
+        @Override
+        public Predicate<T> toSyncPredicate() {
+            return syncPredicate;
+        }
+
         @Override
         public String toString() {
             return String.format("!(%s)", this.predicate);
@@ -110,16 +144,30 @@ public interface AsyncPredicate<T> extends Function<T, Publisher<Boolean>>, HasC
 
         private final AsyncPredicate<? super T> right;
 
+        private final Predicate<T> syncPredicate;
+
         public AndAsyncPredicate(AsyncPredicate<? super T> left, AsyncPredicate<? super T> right) {
             Assert.notNull(left, "Left AsyncPredicate must not be null");
             Assert.notNull(right, "Right AsyncPredicate must not be null");
             this.left = left;
             this.right = right;
+            Predicate<? super T> syncLeft = left.toSyncPredicate();
+            Predicate<? super T> syncRight = right.toSyncPredicate();
+            this.syncPredicate = syncLeft == null || syncRight == null ? null
+                    : t -> syncLeft.test(t) && syncRight.test(t);
         }
 
         @Override
         public Publisher<Boolean> apply(T t) {
-            return Mono.from(left.apply(t)).flatMap(result -> !result ? Mono.just(false) : Mono.from(right.apply(t)));
+            if (syncPredicate != null) {
+                return DefaultAsyncPredicate.just(syncPredicate.test(t));
+            }
+            return Mono.from(left.apply(t)).flatMap(result -> !result ? DefaultAsyncPredicate.FALSE : Mono.from(right.apply(t)));
+        }
+
+        @Override
+        public Predicate<T> toSyncPredicate() {
+            return syncPredicate;
         }
 
         @Override
@@ -141,20 +189,36 @@ public interface AsyncPredicate<T> extends Function<T, Publisher<Boolean>>, HasC
 
         private final AsyncPredicate<? super T> right;
 
+        private final Predicate<T> syncPredicate;
+
         public OrAsyncPredicate(AsyncPredicate<? super T> left, AsyncPredicate<? super T> right) {
             Assert.notNull(left, "Left AsyncPredicate must not be null");
             Assert.notNull(right, "Right AsyncPredicate must not be null");
             this.left = left;
             this.right = right;
+            Predicate<? super T> syncLeft = left.toSyncPredicate();
+            Predicate<? super T> syncRight = right.toSyncPredicate();
+            this.syncPredicate = syncLeft == null || syncRight == null ? null
+                    : t -> syncLeft.test(t) || syncRight.test(t);
         }
 
         @Override
         public Publisher<Boolean> apply(T t) {
-            return Mono.from(left.apply(t)).flatMap(result -> result ? Mono.just(true) : Mono.from(right.apply(t)));
+            if (syncPredicate != null) {
+                return DefaultAsyncPredicate.just(syncPredicate.test(t));
+            }
+            return Mono.from(left.apply(t)).flatMap(result -> result ? DefaultAsyncPredicate.TRUE : Mono.from(right.apply(t)));
+        }
+
+        @Override
+        public Predicate<T> toSyncPredicate() {
+            return syncPredicate;
         }
 
         @Override
         public void accept(Visitor visitor) {
+            // report the disjunction itself, configs below it are not necessary conditions
+            visitor.visit(this);
             left.accept(visitor);
             right.accept(visitor);
         }
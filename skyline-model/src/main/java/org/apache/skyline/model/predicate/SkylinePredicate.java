@@ -92,6 +92,8 @@ public interface SkylinePredicate extends Predicate<ServerWebExchange>, HasConfi
 
         @Override
         public void accept(Visitor visitor) {
+            // report the negation itself, configs below it are not necessary conditions
+            visitor.visit(this);
             predicate.accept(visitor);
         }
 
@@ -153,6 +155,8 @@ public interface SkylinePredicate extends Predicate<ServerWebExchange>, HasConfi
 
         @Override
         public void accept(Visitor visitor) {
+            // report the disjunction itself, configs below it are not necessary conditions
+            visitor.visit(this);
             left.accept(visitor);
             right.accept(visitor);
         }
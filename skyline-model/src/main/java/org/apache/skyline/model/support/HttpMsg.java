@@ -34,4 +34,6 @@ public class HttpMsg {
 
     public static final HttpMsg API_NOT_FOUND = new HttpMsg(200, "Api Not Found", "404");
 
+    public static final HttpMsg CIRCUIT_BREAKER_OPEN = new HttpMsg(503, "Circuit Breaker Open", "503");
+
 }
@@ -31,7 +31,7 @@ public class CapableSwitch<V> {
     @Getter
     private String desc;
     @Setter
-    private V value;
+    private volatile V value;
 
     public CapableSwitch(String name) {
         this.name = name;
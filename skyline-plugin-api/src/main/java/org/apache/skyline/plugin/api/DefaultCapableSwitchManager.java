@@ -17,17 +17,19 @@ package org.apache.skyline.plugin.api;
 
 import lombok.Getter;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Registry of capable switches grouped by plugin, shared by all plugin chains.
+ *
  * @author lijian
  * @since 2022-11-09 16:28
  */
 public class DefaultCapableSwitchManager {
 
     @Getter
-    private final Map<String, Group> groups = new HashMap<>();
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
 
     public Group group(String groupName) {
         Group group = groups.get(groupName);
@@ -35,31 +37,41 @@ public class DefaultCapableSwitchManager {
     }
 
     public Group getGroupSwitches(String groupName) {
-        Group group = groups.get(groupName);
-        if (group == null) {
-            group = new Group(groupName);
-        }
-        return group;
+        return groups.computeIfAbsent(groupName, Group::new);
     }
 
     public static class Group {
         private final String name;
 
         @Getter
-        private final Map<String, CapableSwitch<?>> capableSwitchHashMap = new HashMap<>();
+        private final Map<String, CapableSwitch<?>> capableSwitchHashMap = new ConcurrentHashMap<>();
 
         public Group(String name) {
             this.name = name;
         }
 
+        @SuppressWarnings("unchecked")
         public <T> CapableSwitch<T> getSwitch(String switchName) {
-            CapableSwitch<?> rawCapableSwitch = capableSwitchHashMap.get(switchName);
-            CapableSwitch<T> capableSwitch = (CapableSwitch<T>) capableSwitchHashMap.get(switchName);
-            if (capableSwitch == null) {
-                capableSwitch = new CapableSwitch<>(switchName);
-                capableSwitchHashMap.put(switchName, capableSwitch);
-            }
-            return capableSwitch;
+            return (CapableSwitch<T>) capableSwitchHashMap.computeIfAbsent(switchName, CapableSwitch::new);
+        }
+
+        public void register(CapableSwitch<?> capableSwitch) {
+            capableSwitchHashMap.putIfAbsent(capableSwitch.getName(), capableSwitch);
+        }
+
+        /**
+         * Registers the switch in place of a registered one of the same name, for a plugin
+         * instance replacing another.
+         */
+        public void replace(CapableSwitch<?> capableSwitch) {
+            capableSwitchHashMap.put(capableSwitch.getName(), capableSwitch);
+        }
+
+        /**
+         * Removes the switch unless another one was registered under its name meanwhile.
+         */
+        public void unregister(CapableSwitch<?> capableSwitch) {
+            capableSwitchHashMap.remove(capableSwitch.getName(), capableSwitch);
         }
     }
 
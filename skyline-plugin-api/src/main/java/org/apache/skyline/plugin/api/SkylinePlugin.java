@@ -30,6 +30,25 @@ public interface SkylinePlugin<T> extends PluginLifeCycle {
 
     Class<T> getConfigClass();
 
+    /**
+     * The config returned by {@link SkylinePluginChain#getConfig()} is bound once per api
+     * and shared by all requests, so it must be treated as immutable. Plugins which mutate
+     * their config while handling a request return true to get a private copy per request,
+     * deserialized again from the json without going through {@link #onConfigBound}.
+     */
+    default boolean isConfigMutable() {
+        return false;
+    }
+
+    /**
+     * Called once with the config bound from the json of an api when the api is built, null
+     * when the api has none.
+     * Plugins validate and prepare their config here, throwing fails the build of the api
+     * instead of its requests.
+     */
+    default void onConfigBound(T config) {
+    }
+
     default List<CapableSwitch<?>> exportCapableSwitches() {
         return List.of();
     }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.plugin.rate.limit;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.apache.skyline.plugin.api.SkylinePlugin;
+import org.apache.skyline.plugin.api.SkylinePluginChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Limits the requests of an api with local token buckets, by the api as a whole, the client
+ * address, a header value or a uri template variable. Requests over the limit are answered
+ * with 429, the X-RateLimit-* headers tell the client the state of its bucket.
+ * <p>
+ * The buckets of an api hang off its bound config, they are validated and created when the
+ * api is built and go away together with the api.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 23:50
+ */
+public class RateLimitPlugin implements SkylinePlugin<RateLimitPlugin.Config> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitPlugin.class);
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, SkylinePluginChain chain) {
+        Config config = chain.getConfig();
+        RateLimiter limiter = config.limiter;
+        String key = limiter.resolveKey(exchange);
+        if (key == null || (key.isEmpty() && config.getKeyResolver() != KeyResolver.API)) {
+            if (config.isDenyEmptyKey()) {
+                exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+                return exchange.getResponse().setComplete();
+            }
+            return chain.handle(exchange);
+        }
+        long acquired = limiter.acquire(key);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        if (acquired >= 0) {
+            if (config.isIncludeHeaders()) {
+                headers.set(LIMIT_HEADER, limiter.getLimit());
+                headers.set(REMAINING_HEADER, String.valueOf(acquired));
+                headers.set(RESET_HEADER, String.valueOf(limiter.resetSeconds(acquired)));
+            }
+            return chain.handle(exchange);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("rate limiting {} of key [{}]", exchange.getRequest().getURI(), key);
+        }
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        if (config.isIncludeHeaders()) {
+            headers.set(LIMIT_HEADER, limiter.getLimit());
+            headers.set(REMAINING_HEADER, "0");
+            headers.set(RESET_HEADER, String.valueOf(limiter.resetSecondsAfterWait(-acquired)));
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimiter.toSeconds(-acquired)));
+        }
+        return response.setComplete();
+    }
+
+    @Override
+    public void onConfigBound(Config config) {
+        Assert.notNull(config, "rate limit config is required");
+        config.limiter = new RateLimiter(config);
+    }
+
+    @Override
+    public Class<Config> getConfigClass() {
+        return Config.class;
+    }
+
+    public enum KeyResolver {
+        /**
+         * one bucket for the whole api.
+         */
+        API,
+        /**
+         * a bucket per client address.
+         */
+        CLIENT_IP,
+        /**
+         * a bucket per value of the header named by the key name.
+         */
+        HEADER,
+        /**
+         * a bucket per value of the uri template variable named by the key name.
+         */
+        URI_VARIABLE
+    }
+
+    @Data
+    public static class Config {
+
+        private KeyResolver keyResolver = KeyResolver.API;
+
+        /**
+         * header or uri template variable name.
+         */
+        private String keyName;
+
+        /**
+         * trusted proxies in front of the gateway, 0 takes the client address of the connection.
+         */
+        private int maxTrustedIndex;
+
+        /**
+         * tokens added per second.
+         */
+        private double replenishRate;
+
+        private int burstCapacity;
+
+        private int requestedTokens = 1;
+
+        /**
+         * max keys with a bucket, the least valuable ones are evicted beyond.
+         */
+        private long maxKeys = 1_000_000;
+
+        /**
+         * rejects requests without a key instead of letting them pass unlimited.
+         */
+        private boolean denyEmptyKey;
+
+        private boolean includeHeaders = true;
+
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        private RateLimiter limiter;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.skyline.plugin.rate.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.skyline.commons.support.ipresolver.RemoteAddressResolver;
+import org.apache.skyline.commons.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.apache.skyline.commons.utils.WebUtils;
+import org.springframework.util.Assert;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets of one api, one per key.
+ * <p>
+ * A bucket is kept as the single long of its theoretical arrival time (GCRA): the instant
+ * the bucket would be full again. Taking tokens pushes that instant forward by their refill
+ * time, which is allowed while it stays within the burst from now. So taking tokens is one
+ * CAS and refilling is free, a hot key never takes a lock.
+ * <p>
+ * The buckets live in a bounded cache evicting keys idle for a whole refill time, by then
+ * their bucket is full and dropping it loses nothing.
+ *
+ * @author lijian
+ * @since time: 2026-10-18 23:50
+ */
+final class RateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimitPlugin.Config config;
+
+    /**
+     * refill time of one token.
+     */
+    private final long intervalNanos;
+
+    /**
+     * refill time of the whole bucket.
+     */
+    private final long burstNanos;
+
+    private final long costNanos;
+
+    private final String limit;
+
+    private final RemoteAddressResolver remoteAddressResolver;
+
+    /**
+     * the bucket of the api when it is limited as a whole.
+     */
+    private final AtomicLong apiBucket;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimiter(RateLimitPlugin.Config config) {
+        Assert.notNull(config.getKeyResolver(), "keyResolver is required");
+        Assert.isTrue(config.getReplenishRate() > 0, "replenishRate must be positive");
+        Assert.isTrue(config.getRequestedTokens() > 0 && config.getRequestedTokens() <= config.getBurstCapacity(),
+                "requestedTokens must be positive and within burstCapacity");
+        this.config = config;
+        this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / config.getReplenishRate()));
+        this.burstNanos = intervalNanos * config.getBurstCapacity();
+        this.costNanos = intervalNanos * config.getRequestedTokens();
+        this.limit = String.valueOf(config.getBurstCapacity());
+        this.remoteAddressResolver = config.getMaxTrustedIndex() > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(config.getMaxTrustedIndex())
+                : new RemoteAddressResolver() {
+                };
+        if (config.getKeyResolver() == RateLimitPlugin.KeyResolver.API) {
+            this.apiBucket = new AtomicLong(System.nanoTime());
+            this.buckets = null;
+        } else {
+            this.apiBucket = null;
+            this.buckets = Caffeine.newBuilder().maximumSize(config.getMaxKeys())
+                    .expireAfterAccess(Duration.ofNanos(burstNanos)).build();
+        }
+    }
+
+    String getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the key of the request, null when the request does not carry one
+     */
+    String resolveKey(ServerWebExchange exchange) {
+        switch (config.getKeyResolver()) {
+            case API:
+                return "";
+            case CLIENT_IP:
+                InetSocketAddress address = remoteAddressResolver.resolve(exchange);
+                if (address == null) {
+                    return null;
+                }
+                return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+            case HEADER:
+                return exchange.getRequest().getHeaders().getFirst(config.getKeyName());
+            case URI_VARIABLE:
+                return WebUtils.getUriTemplateVariables(exchange).get(config.getKeyName());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Takes the requested tokens from the bucket of the key.
+     *
+     * @return the tokens left when they were taken, else the negated nanos to wait for them
+     */
+    long acquire(String key) {
+        AtomicLong bucket = buckets == null ? apiBucket : buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        long now = System.nanoTime();
+        for (; ; ) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + costNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return -(ahead - burstNanos);
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return (burstNanos - ahead) / intervalNanos;
+            }
+        }
+    }
+
+    /**
+     * @return seconds until a bucket with the given tokens left is full again
+     */
+    long resetSeconds(long remaining) {
+        return toSeconds((config.getBurstCapacity() - remaining) * intervalNanos);
+    }
+
+    /**
+     * @return seconds until a bucket which had to wait the given nanos is full again
+     */
+    long resetSecondsAfterWait(long waitNanos) {
+        return toSeconds(waitNanos + burstNanos - costNanos);
+    }
+
+    static long toSeconds(long nanos) {
+        return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+}
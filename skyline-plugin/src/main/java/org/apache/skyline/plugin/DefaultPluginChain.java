@@ -15,41 +15,67 @@
  */
 package org.apache.skyline.plugin;
 
-import lombok.Getter;
-import lombok.Setter;
 import org.apache.skyline.commons.exception.SkylineException;
 import org.apache.skyline.commons.utils.CastUtils;
-import org.apache.skyline.commons.utils.JsonUtils;
 import org.apache.skyline.plugin.api.DefaultCapableSwitchManager;
-import org.apache.skyline.plugin.api.SkylinePlugin;
 import org.apache.skyline.plugin.api.SkylinePluginChain;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 /**
+ * Immutable chain node, the whole chain of an api is linked once when the api is built
+ * so handling a request does not allocate anything per plugin hop.
+ * <p>
+ * The node handed to a plugin is the next node, so its config is the config of the
+ * previous wrapper. Once the plugins are exhausted the terminal handler, if any, gets the
+ * exchange handed down by the last plugin.
+ *
  * @author lijian
  * @since time: 2022-09-09 17:23
  */
 public class DefaultPluginChain implements SkylinePluginChain {
 
-    private final int index;
-
     private final List<SkylinePluginWrapper<?>> pluginWrappers;
 
-    @Setter
-    @Getter
-    private Object config;
+    private final SkylinePluginWrapper<?> current;
 
-    public DefaultPluginChain(List<SkylinePluginWrapper<?>> pluginWrappers) {
-        this.pluginWrappers = pluginWrappers;
-        this.index = 0;
+    private final SkylinePluginWrapper<?> previous;
+
+    private final DefaultPluginChain next;
+
+    private final DefaultCapableSwitchManager capableSwitchManager;
+
+    private final WebHandler terminal;
+
+    public DefaultPluginChain(List<SkylinePluginWrapper<?>> pluginWrappers,
+                              DefaultCapableSwitchManager capableSwitchManager) {
+        this(pluginWrappers, capableSwitchManager, null);
+    }
+
+    public DefaultPluginChain(List<SkylinePluginWrapper<?>> pluginWrappers,
+                              DefaultCapableSwitchManager capableSwitchManager, WebHandler terminal) {
+        this(pluginWrappers, 0, capableSwitchManager, terminal);
     }
 
-    public DefaultPluginChain(DefaultPluginChain parent, int index) {
-        this.pluginWrappers = parent.getPluginWrappers();
-        this.index = index;
+    private DefaultPluginChain(List<SkylinePluginWrapper<?>> pluginWrappers, int index,
+                               DefaultCapableSwitchManager capableSwitchManager, WebHandler terminal) {
+        this.pluginWrappers = pluginWrappers;
+        this.capableSwitchManager = capableSwitchManager;
+        this.terminal = terminal;
+        this.previous = index > 0 ? pluginWrappers.get(index - 1) : null;
+        if (index < pluginWrappers.size()) {
+            this.current = pluginWrappers.get(index);
+            if (this.current.getSkylinePlugin() == null) {
+                throw new SkylineException("pluginWrapper don't have skyline plugin instance");
+            }
+            this.next = new DefaultPluginChain(pluginWrappers, index + 1, capableSwitchManager, terminal);
+        } else {
+            this.current = null;
+            this.next = null;
+        }
     }
 
     public List<SkylinePluginWrapper<?>> getPluginWrappers() {
@@ -58,32 +84,26 @@ public class DefaultPluginChain implements SkylinePluginChain {
 
     @Override
     public Mono<Void> handle(ServerWebExchange exchange) {
-        if (this.index < pluginWrappers.size()) {
-            SkylinePluginWrapper<?> pluginWrapper = pluginWrappers.get(this.index);
-            if (pluginWrapper.getSkylinePlugin() == null) {
-                throw new SkylineException("pluginWrapper don't have skyline plugin instance");
-            }
-            SkylinePlugin<?> plugin = pluginWrapper.getSkylinePlugin();
-            DefaultPluginChain chain = new DefaultPluginChain(this, this.index + 1);
-            return plugin.handle(exchange, chain);
-        } else {
-            return Mono.empty();
+        if (current == null) {
+            return terminal == null ? Mono.empty() : terminal.handle(exchange);
         }
+        return current.getSkylinePlugin().handle(exchange, next);
     }
 
     @Override
     public <T> T getConfig() {
-        SkylinePluginWrapper<?> pluginWrapper = pluginWrappers.get(this.index - 1);
-        if (pluginWrapper.getSkylinePlugin() == null) {
-            throw new SkylineException("pluginWrapper don't have skyline plugin instance");
+        if (previous == null) {
+            throw new SkylineException("chain head don't have plugin config");
+        }
+        if (previous.getSkylinePlugin().isConfigMutable()) {
+            return CastUtils.cast(previous.copyConfig());
         }
-        SkylinePlugin<?> plugin = pluginWrapper.getSkylinePlugin();
-        return CastUtils.cast(JsonUtils.toObj(pluginWrapper.getJsonConfig(), plugin.getConfigClass()));
+        return CastUtils.cast(previous.getConfig());
     }
 
     @Override
     public DefaultCapableSwitchManager getCapableSwitchManager() {
-        return new DefaultCapableSwitchManager();
+        return capableSwitchManager;
     }
 
 }
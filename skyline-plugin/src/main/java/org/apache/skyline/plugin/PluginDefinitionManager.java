@@ -25,8 +25,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,7 +48,7 @@ public class PluginDefinitionManager {
             pluginDefinitions.clear();
         }
         for (URL input : resources) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input.openStream()))) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(openUncached(input)))) {
                 String pluginDefine;
                 while ((pluginDefine = reader.readLine()) != null) {
                     try {
@@ -65,6 +67,16 @@ public class PluginDefinitionManager {
         }
     }
 
+    /**
+     * jar urls are cached by the jdk with their jar file open, plugin jars may be replaced
+     * at runtime so they are always read afresh.
+     */
+    private static InputStream openUncached(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        return connection.getInputStream();
+    }
+
     public String getDefineClass(String name) {
         PluginRawDefinition pluginRawDefinition = pluginDefinitions.get(name);
         if (pluginRawDefinition != null) {
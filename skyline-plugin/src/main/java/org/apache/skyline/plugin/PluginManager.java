@@ -16,17 +16,230 @@
 package org.apache.skyline.plugin;
 
 import lombok.Getter;
+import org.apache.skyline.commons.exception.SkylineException;
+import org.apache.skyline.plugin.api.CapableSwitch;
+import org.apache.skyline.plugin.api.DefaultCapableSwitchManager;
+import org.apache.skyline.plugin.api.SkylinePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
+ * Registry of loaded plugin instances. A plugin is loaded once per jar, version and class
+ * through the class loader of its jar and shared by every api using it, the per api config
+ * lives on {@link SkylinePluginWrapper}. The version is the one of the jar the plugins are
+ * loaded from, so the instances of a reloaded jar never share a key with the ones they replace.
+ *
  * @author lijian
  * @since time: 2022-09-14 10:26
  */
 public class PluginManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(PluginManager.class);
+
+    /**
+     * version of plugins loaded from the class path instead of a plugin jar.
+     */
+    public static final String CLASSPATH_VERSION = "classpath";
+
+    /**
+     * key: jarName@version#defineClass
+     */
     @Getter
-    private Map<String, SkylinePluginWrapper<?>> plugins = new ConcurrentHashMap<>();
+    private final Map<String, SkylinePlugin<?>> plugins = new ConcurrentHashMap<>();
+
+    @Getter
+    private final DefaultCapableSwitchManager capableSwitchManager = new DefaultCapableSwitchManager();
+
+    /**
+     * jar name to the class loader of that jar.
+     */
+    private final Function<String, ClassLoader> classLoaderResolver;
+
+    /**
+     * jar name to the version of the jar when its first plugin is loaded.
+     */
+    private final Function<String, String> versionResolver;
+
+    /**
+     * jar name to the version its plugins are loaded from, changed under this.
+     */
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    /**
+     * bumped whenever loaded plugins are retired, apis built before hold stale instances.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PluginManager() {
+        this(jarName -> PluginManager.class.getClassLoader(), jarName -> CLASSPATH_VERSION);
+    }
+
+    public PluginManager(Function<String, ClassLoader> classLoaderResolver, Function<String, String> versionResolver) {
+        this.classLoaderResolver = classLoaderResolver;
+        this.versionResolver = versionResolver;
+    }
+
+    /**
+     * Returns the plugin instance of the definition, loading it through the class loader of
+     * its jar on first use.
+     */
+    public SkylinePlugin<?> getPlugin(PluginDefinition pluginDefinition) {
+        String jarName = pluginDefinition.getJarName();
+        String defineClass = pluginDefinition.getDefineClass();
+        String loadedVersion = versions.get(jarName);
+        SkylinePlugin<?> loaded = loadedVersion == null ? null : plugins.get(key(jarName, loadedVersion, defineClass));
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (this) {
+            // a swap may not replace the version in between, or the instance is keyed on the old one
+            String version = versions.computeIfAbsent(jarName, versionResolver);
+            return plugins.computeIfAbsent(key(jarName, version, defineClass), key -> {
+                try {
+                    LOGGER.debug("loading plugin class {} of {}.", defineClass, key);
+                    SkylinePlugin<?> plugin = (SkylinePlugin<?>) Class.forName(defineClass, true,
+                            classLoaderResolver.apply(jarName)).getConstructor().newInstance();
+                    registerCapableSwitches(plugin);
+                    plugin.onInstall();
+                    return plugin;
+                } catch (Throwable t) {
+                    LOGGER.error("load plugin [" + defineClass + "] failure.", t);
+                    throw new SkylineException(t);
+                }
+            });
+        }
+    }
+
+    /**
+     * Registers the switches exported by a freshly loaded plugin under its class name.
+     */
+    public void registerCapableSwitches(SkylinePlugin<?> plugin) {
+        DefaultCapableSwitchManager.Group group = capableSwitchManager.getGroupSwitches(plugin.getClass().getName());
+        for (CapableSwitch<?> capableSwitch : plugin.exportCapableSwitches()) {
+            group.register(capableSwitch);
+        }
+    }
+
+    /**
+     * Moves the switches of the group of a plugin class from the replaced instance to the
+     * replacing one, switches only the replaced instance exported are dropped.
+     */
+    private void replaceCapableSwitches(SkylinePlugin<?> replaced, SkylinePlugin<?> replacement) {
+        if (replaced != null) {
+            DefaultCapableSwitchManager.Group group = capableSwitchManager.getGroupSwitches(replaced.getClass().getName());
+            for (CapableSwitch<?> capableSwitch : replaced.exportCapableSwitches()) {
+                group.unregister(capableSwitch);
+            }
+        }
+        if (replacement != null) {
+            DefaultCapableSwitchManager.Group group = capableSwitchManager.getGroupSwitches(replacement.getClass().getName());
+            for (CapableSwitch<?> capableSwitch : replacement.exportCapableSwitches()) {
+                group.replace(capableSwitch);
+            }
+        }
+    }
+
+    /**
+     * Loads a fresh instance of every plugin loaded so far from the jar through the loader of
+     * its new version, without putting them in service. Nothing is left installed when one
+     * fails.
+     *
+     * @return the new instances by plugin key, to be put in service by {@link #swap}
+     */
+    public Map<String, SkylinePlugin<?>> stage(String jarName, String version, ClassLoader classLoader) {
+        Map<String, SkylinePlugin<?>> staged = new HashMap<>();
+        String prefix = jarName + "@";
+        try {
+            for (String key : plugins.keySet()) {
+                if (key.startsWith(prefix)) {
+                    String defineClass = defineClass(key);
+                    SkylinePlugin<?> plugin = (SkylinePlugin<?>) Class.forName(defineClass, true, classLoader)
+                            .getConstructor().newInstance();
+                    plugin.onInstall();
+                    staged.put(key(jarName, version, defineClass), plugin);
+                }
+            }
+        } catch (Throwable t) {
+            staged.values().forEach(PluginManager::uninstall);
+            throw new SkylineException("stage plugins of " + jarName + " failure", t);
+        }
+        return staged;
+    }
+
+    /**
+     * Replaces every plugin loaded from the jar with the given instances of the version, apis
+     * built before hold stale instances from now on. The switches of the replaced instances
+     * are taken over by the replacing ones.
+     *
+     * @param version version of the replacements, null when the jar is gone
+     * @return the replaced instances by plugin key, not uninstalled
+     */
+    public synchronized Map<String, SkylinePlugin<?>> swap(String jarName, String version,
+                                                           Map<String, SkylinePlugin<?>> replacements) {
+        Map<String, SkylinePlugin<?>> replaced = new HashMap<>();
+        String prefix = jarName + "@";
+        Iterator<Map.Entry<String, SkylinePlugin<?>>> iterator = plugins.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, SkylinePlugin<?>> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                replaced.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+        Map<String, SkylinePlugin<?>> retiring = byDefineClass(replaced);
+        Map<String, SkylinePlugin<?>> replacing = byDefineClass(replacements);
+        for (String defineClass : union(retiring.keySet(), replacing.keySet())) {
+            replaceCapableSwitches(retiring.get(defineClass), replacing.get(defineClass));
+        }
+        plugins.putAll(replacements);
+        if (version == null) {
+            versions.remove(jarName);
+        } else {
+            versions.put(jarName, version);
+        }
+        generation.incrementAndGet();
+        return replaced;
+    }
+
+    private static Map<String, SkylinePlugin<?>> byDefineClass(Map<String, SkylinePlugin<?>> plugins) {
+        Map<String, SkylinePlugin<?>> byDefineClass = new HashMap<>();
+        plugins.forEach((key, plugin) -> byDefineClass.put(defineClass(key), plugin));
+        return byDefineClass;
+    }
+
+    private static Set<String> union(Set<String> left, Set<String> right) {
+        Set<String> union = new HashSet<>(left);
+        union.addAll(right);
+        return union;
+    }
+
+    public static void uninstall(SkylinePlugin<?> plugin) {
+        try {
+            plugin.onUninstall();
+        } catch (Throwable t) {
+            LOGGER.error("uninstall plugin [" + plugin.getClass().getName() + "] failure.", t);
+        }
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    private static String key(String jarName, String version, String defineClass) {
+        return jarName + "@" + version + "#" + defineClass;
+    }
 
+    private static String defineClass(String key) {
+        return key.substring(key.lastIndexOf('#') + 1);
+    }
 }
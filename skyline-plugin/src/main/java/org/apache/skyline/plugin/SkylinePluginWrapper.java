@@ -15,8 +15,8 @@
  */
 package org.apache.skyline.plugin;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.apache.skyline.commons.utils.JsonUtils;
 import org.apache.skyline.plugin.api.SkylinePlugin;
 
 /**
@@ -24,10 +24,43 @@ import org.apache.skyline.plugin.api.SkylinePlugin;
  * @since time: 2022-09-19 16:52
  */
 @Data
-@AllArgsConstructor
 public class SkylinePluginWrapper<T> {
 
     private SkylinePlugin<T> skylinePlugin;
 
     private String jsonConfig;
+
+    /**
+     * config bound from {@link #jsonConfig} when the api is built, shared by all requests.
+     */
+    private T config;
+
+    public SkylinePluginWrapper(SkylinePlugin<T> skylinePlugin, String jsonConfig) {
+        this.skylinePlugin = skylinePlugin;
+        this.jsonConfig = jsonConfig;
+        this.config = bindConfig();
+    }
+
+    /**
+     * Deserializes a fresh config object from {@link #jsonConfig} and hands it to
+     * {@link SkylinePlugin#onConfigBound}.
+     */
+    private T bindConfig() {
+        T bound = copyConfig();
+        if (skylinePlugin != null && skylinePlugin.getConfigClass() != null) {
+            skylinePlugin.onConfigBound(bound);
+        }
+        return bound;
+    }
+
+    /**
+     * Deserializes a private copy of the config for one request, without calling
+     * {@link SkylinePlugin#onConfigBound} again.
+     */
+    public T copyConfig() {
+        if (skylinePlugin == null || skylinePlugin.getConfigClass() == null || jsonConfig == null) {
+            return null;
+        }
+        return JsonUtils.toObj(jsonConfig, skylinePlugin.getConfigClass());
+    }
 }